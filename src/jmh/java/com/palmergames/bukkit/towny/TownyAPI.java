@@ -0,0 +1,60 @@
+package com.palmergames.bukkit.towny;
+
+import com.palmergames.bukkit.towny.object.Town;
+import com.palmergames.bukkit.towny.object.TownBlock;
+import com.palmergames.bukkit.towny.object.WorldCoord;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stand-in for Towny's API in the benchmarks, which run without a server
+ * Only the lookups the plugin makes are provided, answered from towns registered with {@link #addTown}
+ */
+public class TownyAPI {
+
+    private static final TownyAPI INSTANCE = new TownyAPI();
+
+    private final Map<UUID, Town> towns = new LinkedHashMap<>();
+    private final Map<WorldCoord, TownBlock> townBlocks = new HashMap<>();
+
+    public static TownyAPI getInstance() {
+        return INSTANCE;
+    }
+
+    public List<Town> getTowns() {
+        return new ArrayList<>(towns.values());
+    }
+
+    public Town getTown(UUID uuid) {
+        return towns.get(uuid);
+    }
+
+    public TownBlock getTownBlock(WorldCoord worldCoord) {
+        return townBlocks.get(worldCoord);
+    }
+
+    /**
+     * Registers a town and the townblocks it has claimed so far; not part of Towny's API
+     *
+     * @param town The town to register
+     */
+    public void addTown(Town town) {
+        towns.put(town.getUUID(), town);
+        for (TownBlock townBlock : town.getTownBlocks()) {
+            townBlocks.put(townBlock.getWorldCoord(), townBlock);
+        }
+    }
+
+    /**
+     * Forgets every registered town; not part of Towny's API
+     */
+    public void clear() {
+        towns.clear();
+        townBlocks.clear();
+    }
+}
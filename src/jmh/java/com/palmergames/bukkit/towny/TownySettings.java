@@ -0,0 +1,11 @@
+package com.palmergames.bukkit.towny;
+
+/**
+ * Stand-in for Towny's settings in the benchmarks, fixed to Towny's defaults
+ */
+public class TownySettings {
+
+    public static int getTownBlockSize() {
+        return 16;
+    }
+}
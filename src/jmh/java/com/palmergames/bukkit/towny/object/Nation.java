@@ -0,0 +1,17 @@
+package com.palmergames.bukkit.towny.object;
+
+/**
+ * Stand-in for Towny's nation in the benchmarks
+ */
+public class Nation {
+
+    private final String name;
+
+    public Nation(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
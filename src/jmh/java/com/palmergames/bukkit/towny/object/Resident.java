@@ -0,0 +1,25 @@
+package com.palmergames.bukkit.towny.object;
+
+import java.util.UUID;
+
+/**
+ * Stand-in for Towny's resident in the benchmarks
+ */
+public class Resident {
+
+    private final String name;
+    private final UUID uuid;
+
+    public Resident(String name, UUID uuid) {
+        this.name = name;
+        this.uuid = uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public UUID getUUID() {
+        return uuid;
+    }
+}
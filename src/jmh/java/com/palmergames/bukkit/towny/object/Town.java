@@ -0,0 +1,98 @@
+package com.palmergames.bukkit.towny.object;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stand-in for Towny's town in the benchmarks, with only the members the plugin uses
+ * Towns are open and public, with no mayor, nation or taxes
+ */
+public class Town {
+
+    private final String name;
+    private final UUID uuid;
+    private final List<TownBlock> townBlocks = new ArrayList<>();
+    private final List<Resident> residents = new ArrayList<>();
+    private boolean open = true;
+    private boolean isPublic = true;
+
+    public Town(String name, UUID uuid) {
+        this.name = name;
+        this.uuid = uuid;
+    }
+
+    public UUID getUUID() {
+        return uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public void setOpen(boolean open) {
+        this.open = open;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    public void setPublic(boolean isPublic) {
+        this.isPublic = isPublic;
+    }
+
+    public boolean isRuined() {
+        return false;
+    }
+
+    public Collection<TownBlock> getTownBlocks() {
+        return Collections.unmodifiableCollection(townBlocks);
+    }
+
+    public void addTownBlock(TownBlock townBlock) {
+        townBlocks.add(townBlock);
+    }
+
+    public int getNumTownBlocks() {
+        return townBlocks.size();
+    }
+
+    public List<Resident> getResidents() {
+        return Collections.unmodifiableList(residents);
+    }
+
+    public int getNumResidents() {
+        return residents.size();
+    }
+
+    public boolean hasMayor() {
+        return false;
+    }
+
+    public Resident getMayor() {
+        return null;
+    }
+
+    public boolean hasNation() {
+        return false;
+    }
+
+    public Nation getNationOrNull() {
+        return null;
+    }
+
+    public double getTaxes() {
+        return 0;
+    }
+
+    public boolean isTaxPercentage() {
+        return false;
+    }
+}
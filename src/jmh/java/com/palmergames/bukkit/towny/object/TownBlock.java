@@ -0,0 +1,66 @@
+package com.palmergames.bukkit.towny.object;
+
+/**
+ * Stand-in for Towny's townblock in the benchmarks, with only the members the plugin uses
+ */
+public class TownBlock {
+
+    private final WorldCoord worldCoord;
+    private final Town town;
+    private TownBlockType type = TownBlockType.RESIDENTIAL;
+    private String name = "";
+    private double plotPrice = -1;
+
+    public TownBlock(int x, int z, String worldName, Town town) {
+        this.worldCoord = new WorldCoord(worldName, x, z);
+        this.town = town;
+    }
+
+    public WorldCoord getWorldCoord() {
+        return worldCoord;
+    }
+
+    public int getX() {
+        return worldCoord.getX();
+    }
+
+    public int getZ() {
+        return worldCoord.getZ();
+    }
+
+    public Town getTownOrNull() {
+        return town;
+    }
+
+    public Resident getResidentOrNull() {
+        return null;
+    }
+
+    public TownBlockType getType() {
+        return type;
+    }
+
+    public void setType(TownBlockType type) {
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getPlotPrice() {
+        return plotPrice;
+    }
+
+    public void setPlotPrice(double plotPrice) {
+        this.plotPrice = plotPrice;
+    }
+
+    public boolean isForSale() {
+        return plotPrice != -1;
+    }
+}
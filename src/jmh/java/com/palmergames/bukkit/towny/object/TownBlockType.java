@@ -0,0 +1,25 @@
+package com.palmergames.bukkit.towny.object;
+
+/**
+ * Stand-in for Towny's townblock types in the benchmarks
+ */
+public class TownBlockType {
+
+    public static final TownBlockType DEFAULT = new TownBlockType("Default");
+    public static final TownBlockType RESIDENTIAL = new TownBlockType("Residential");
+    public static final TownBlockType COMMERCIAL = new TownBlockType("Shop");
+    public static final TownBlockType ARENA = new TownBlockType("Arena");
+    public static final TownBlockType EMBASSY = new TownBlockType("Embassy");
+    public static final TownBlockType WILDS = new TownBlockType("Wilds");
+    public static final TownBlockType FARM = new TownBlockType("Farm");
+
+    private final String name;
+
+    public TownBlockType(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,23 @@
+package com.palmergames.bukkit.towny.object;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stand-in for Towny's townblock type registry in the benchmarks, holding the built-in types
+ */
+public class TownBlockTypeHandler {
+
+    private static final Map<String, TownBlockType> TYPES = Map.of(
+            "default", TownBlockType.DEFAULT,
+            "residential", TownBlockType.RESIDENTIAL,
+            "shop", TownBlockType.COMMERCIAL,
+            "arena", TownBlockType.ARENA,
+            "embassy", TownBlockType.EMBASSY,
+            "wilds", TownBlockType.WILDS,
+            "farm", TownBlockType.FARM);
+
+    public static TownBlockType getType(String typeName) {
+        return typeName != null ? TYPES.get(typeName.toLowerCase(Locale.ROOT)) : null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.palmergames.bukkit.towny.object;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.util.Objects;
+
+/**
+ * Stand-in for Towny's townblock coordinate in the benchmarks
+ */
+public class WorldCoord {
+
+    private final String worldName;
+    private final int x;
+    private final int z;
+
+    public WorldCoord(String worldName, int x, int z) {
+        this.worldName = worldName;
+        this.x = x;
+        this.z = z;
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public World getBukkitWorld() {
+        return Bukkit.getWorld(worldName);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof WorldCoord other && x == other.x && z == other.z && worldName.equals(other.worldName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(worldName, x, z);
+    }
+}
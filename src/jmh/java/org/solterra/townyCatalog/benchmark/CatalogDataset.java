@@ -0,0 +1,146 @@
+package org.solterra.townyCatalog.benchmark;
+
+import com.palmergames.bukkit.towny.TownyAPI;
+import com.palmergames.bukkit.towny.object.Town;
+import com.palmergames.bukkit.towny.object.TownBlock;
+import com.palmergames.bukkit.towny.object.TownBlockType;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.solterra.townyCatalog.TownyCatalog;
+import org.solterra.townyCatalog.api.CatalogFilter;
+import org.solterra.townyCatalog.index.PlotIndex;
+import org.solterra.townyCatalog.util.CatalogSettings;
+import org.solterra.townyCatalog.util.ConfigManager;
+import org.solterra.townyCatalog.util.GUITemplates;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generated catalog of stand-in Towny towns and townblocks, indexed by the plugin's own {@link PlotIndex}
+ * MockBukkit provides the server that items and inventories need, and the plugin instance the API reads its index
+ * and settings from is put together without running onEnable, which needs Towny itself
+ * Sizes are set with JMH parameters, e.g. {@code -p towns=20000 -p plots=1000000}
+ */
+@State(Scope.Benchmark)
+public class CatalogDataset {
+
+    private static final String[] WORLDS = {"world", "world_nether", "towns"};
+    private static final TownBlockType[] TYPES = {TownBlockType.DEFAULT, TownBlockType.RESIDENTIAL,
+            TownBlockType.COMMERCIAL, TownBlockType.ARENA, TownBlockType.EMBASSY, TownBlockType.WILDS, TownBlockType.FARM};
+
+    @Param({"100", "2000", "20000"})
+    public int towns;
+
+    @Param({"10000", "100000", "1000000"})
+    public int plots;
+
+    ServerMock server;
+    PlotIndex index;
+    List<Town> townList;
+    Town largestTown;
+    CatalogFilter filter;
+    double balance;
+
+    @Setup(Level.Trial)
+    public void generate() throws ReflectiveOperationException {
+        server = MockBukkit.mock();
+        Random random = new Random(42);
+        townList = new ArrayList<>(towns);
+        for (int i = 0; i < towns; i++) {
+            townList.add(new Town("Town" + i, new UUID(random.nextLong(), random.nextLong())));
+        }
+
+        // Towns are laid out on a grid, far enough apart that even the largest town's rows of plots never overlap
+        int gridSize = (int) Math.ceil(Math.sqrt(towns));
+        for (int i = 0; i < plots; i++) {
+            int townIndex = skewedTown(random);
+            Town town = townList.get(townIndex);
+            int offset = town.getNumTownBlocks();
+            int x = (townIndex % gridSize) * 4096 + offset % 256;
+            int z = (townIndex / gridSize) * 4096 + offset / 256;
+
+            // Prices are log-normal around 500, like a real economy with a few very expensive plots
+            TownBlock townBlock = new TownBlock(x, z, WORLDS[townIndex % WORLDS.length], town);
+            townBlock.setPlotPrice(Math.round(Math.exp(6.2 + random.nextGaussian()) * 100) / 100.0);
+            townBlock.setType(TYPES[random.nextInt(TYPES.length)]);
+            townBlock.setName(random.nextInt(4) == 0 ? "Plot " + i : "");
+            town.addTownBlock(townBlock);
+        }
+
+        TownyAPI.getInstance().clear();
+        largestTown = townList.get(0);
+        for (Town town : townList) {
+            TownyAPI.getInstance().addTown(town);
+            if (town.getNumTownBlocks() > largestTown.getNumTownBlocks()) {
+                largestTown = town;
+            }
+        }
+
+        // Affordability on, town flags off, so every town takes part and the balance cuts each one short
+        CatalogSettings settings = new CatalogSettings(1, true, false, false, true, false,
+                0, false, 0, 0, "json", 0, false, false, "127.0.0.1", 0);
+        index = new PlotIndex();
+        install(index, settings);
+        index.rebuild();
+        GUITemplates.rebuild();
+
+        balance = 750;
+        filter = CatalogFilter.capture(balance);
+
+        // Build the sorted views up front, as a running server would have them warm
+        for (Town town : townList) {
+            if (index.getListing(town.getUUID()) != null) {
+                index.getListing(town.getUUID()).getPriceOrder();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MockBukkit.unmock();
+        TownyAPI.getInstance().clear();
+    }
+
+    /**
+     * Picks a town with a long tail, so a few large towns hold most of the plots
+     */
+    private int skewedTown(Random random) {
+        double skew = Math.pow(random.nextDouble(), 3);
+        return (int) (skew * towns);
+    }
+
+    /**
+     * Makes a plugin instance holding the index and settings, without constructing it, and publishes it as the
+     * running instance; the real constructor only works inside a server's plugin loader
+     */
+    private static void install(PlotIndex index, CatalogSettings settings) throws ReflectiveOperationException {
+        Field unsafeField = Unsafe.class.getDeclaredField("theUnsafe");
+        unsafeField.setAccessible(true);
+        Unsafe unsafe = (Unsafe) unsafeField.get(null);
+
+        ConfigManager configManager = (ConfigManager) unsafe.allocateInstance(ConfigManager.class);
+        set(ConfigManager.class, configManager, "settings", settings);
+
+        TownyCatalog plugin = (TownyCatalog) unsafe.allocateInstance(TownyCatalog.class);
+        set(TownyCatalog.class, plugin, "configManager", configManager);
+        set(TownyCatalog.class, plugin, "plotIndex", index);
+        set(TownyCatalog.class, null, "instance", plugin);
+    }
+
+    private static void set(Class<?> type, Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,175 @@
+package org.solterra.townyCatalog.benchmark;
+
+import com.palmergames.bukkit.towny.object.Town;
+import com.palmergames.bukkit.towny.object.TownBlock;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.solterra.townyCatalog.api.CatalogQuery;
+import org.solterra.townyCatalog.api.TownyCatalogAPI;
+import org.solterra.townyCatalog.gui.CatalogGUI;
+import org.solterra.townyCatalog.gui.CatalogInventoryHolder;
+import org.solterra.townyCatalog.index.TownListing;
+import org.solterra.townyCatalog.model.CatalogPage;
+import org.solterra.townyCatalog.model.TownSnapshot;
+import org.solterra.townyCatalog.model.TownSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the catalog API and GUI against a generated dataset of stand-in Towny objects
+ * Every benchmark calls the plugin's own code; only Towny and the server are stood in for
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogQueryBenchmark {
+
+    private static final int PAGE_SIZE = 45;
+
+    private List<TownBlock> legacyPlots;
+    private List<TownSnapshot> townSnapshots;
+    private CatalogQuery firstPage;
+
+    @Setup
+    public void setup(CatalogDataset dataset) {
+        // The pre-index catalog sorted Towny's townblocks on every open, here handed over from most to least expensive
+        TownListing.PriceOrder order = dataset.index.getListing(dataset.largestTown.getUUID()).getPriceOrder();
+        legacyPlots = new ArrayList<>(order.size());
+        for (int i = order.size() - 1; i >= 0; i--) {
+            legacyPlots.add(dataset.index.resolve(order.getKeys()[i]));
+        }
+
+        townSnapshots = TownyCatalogAPI.snapshotTowns(dataset.filter);
+        firstPage = CatalogQuery.builder()
+                .town(dataset.largestTown)
+                .filter(dataset.filter)
+                .page(0, PAGE_SIZE)
+                .build();
+    }
+
+    /**
+     * Towns with a plot within the balance, one aggregate lookup per town
+     */
+    @Benchmark
+    public List<Town> townsWithPurchasablePlots(CatalogDataset dataset) {
+        return TownyCatalogAPI.getTownsWithPurchasablePlots(dataset.balance);
+    }
+
+    /**
+     * Capturing every town for the town selection, the part that runs on the main thread
+     */
+    @Benchmark
+    public List<TownSnapshot> snapshotTowns(CatalogDataset dataset) {
+        return TownyCatalogAPI.snapshotTowns(dataset.filter);
+    }
+
+    /**
+     * Filtering and ordering the captured towns, the part of the town selection that runs on the worker pool
+     */
+    @Benchmark
+    public List<TownSummary> summariseTowns(CatalogDataset dataset) {
+        return TownyCatalogAPI.summariseTowns(townSnapshots, dataset.filter);
+    }
+
+    /**
+     * Every affordable plot of the largest town, resolved back to townblocks
+     */
+    @Benchmark
+    public List<TownBlock> allPurchasablePlotsIn(CatalogDataset dataset) {
+        return TownyCatalogAPI.getAllPurchasablePlotsIn(dataset.largestTown, dataset.balance);
+    }
+
+    /**
+     * The legacy sortPlotsByPrice over the largest town's townblocks
+     */
+    @Benchmark
+    public List<TownBlock> sortPlotsByPriceLegacy() {
+        return TownyCatalogAPI.sortPlotsByPrice(legacyPlots, true);
+    }
+
+    /**
+     * Capturing the largest town after one of its plots changed, which re-sorts its whole price order
+     */
+    @Benchmark
+    @Threads(1)
+    public TownSnapshot sortPlotsByPriceIndexed(CatalogDataset dataset, PlotChange change) {
+        return TownyCatalogAPI.snapshotTown(dataset.largestTown, dataset.filter);
+    }
+
+    /**
+     * The first page of the largest town after one of its plots changed, ordering only the page
+     */
+    @Benchmark
+    @Threads(1)
+    public CatalogPage firstPageAfterChange(PlotChange change) {
+        return TownyCatalogAPI.query(firstPage);
+    }
+
+    /**
+     * Rendering a page of the largest town's catalog into an inventory, alternating between the first two pages so
+     * every plot slot is rebuilt and written
+     */
+    @Benchmark
+    public void renderPage(OpenCatalog catalog) {
+        catalog.page ^= 1;
+        CatalogGUI.populatePage(catalog.holder, catalog.page);
+    }
+
+    /**
+     * Re-lists the largest town's cheapest plot at its own price before each call, which marks the town's price order
+     * stale without changing the dataset; plots already listed keep when they were listed
+     * The index has a single writer on a server, so benchmarks using this run on one thread
+     */
+    @State(Scope.Thread)
+    public static class PlotChange {
+
+        private CatalogDataset dataset;
+        private TownBlock plot;
+
+        @Setup(Level.Trial)
+        public void pick(CatalogDataset dataset) {
+            this.dataset = dataset;
+            long key = dataset.index.getListing(dataset.largestTown.getUUID()).getKeysByPrice()[0];
+            plot = dataset.index.resolve(key);
+        }
+
+        @Setup(Level.Invocation)
+        public void relist() {
+            dataset.index.refresh(plot.getWorldCoord());
+        }
+    }
+
+    /**
+     * A catalog window on the largest town, open for one benchmark thread's own player
+     */
+    @State(Scope.Thread)
+    public static class OpenCatalog {
+
+        private CatalogInventoryHolder holder;
+        private int page;
+
+        @Setup(Level.Trial)
+        public void open(CatalogDataset dataset) {
+            holder = new CatalogInventoryHolder(dataset.server.addPlayer(), dataset.filter, dataset.largestTown);
+            holder.setInventory(Bukkit.createInventory(holder, 54, Component.text(dataset.largestTown.getName())));
+            CatalogGUI.populatePage(holder, page);
+        }
+    }
+}
@@ -2,16 +2,50 @@ package org.solterra.townyCatalog;
 
 import com.palmergames.bukkit.towny.TownyCommandAddonAPI;
 import com.palmergames.bukkit.towny.TownyCommandAddonAPI.CommandType;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.solterra.townyCatalog.command.CatalogCommand;
 import org.solterra.townyCatalog.command.TCatalogCommand;
+import org.solterra.townyCatalog.economy.BalanceCache;
+import org.solterra.townyCatalog.export.CatalogExporter;
+import org.solterra.townyCatalog.export.CatalogHttpServer;
+import org.solterra.townyCatalog.export.ExportFormat;
+import org.solterra.townyCatalog.gui.ViewManager;
+import org.solterra.townyCatalog.index.IndexSnapshot;
+import org.solterra.townyCatalog.index.PlotHeightCache;
+import org.solterra.townyCatalog.index.PlotIndex;
+import org.solterra.townyCatalog.listener.BalanceListener;
 import org.solterra.townyCatalog.listener.CatalogListener;
+import org.solterra.townyCatalog.listener.PlotHeightListener;
+import org.solterra.townyCatalog.listener.PlotIndexListener;
+import org.solterra.townyCatalog.metrics.MetricsDumper;
+import org.solterra.townyCatalog.profile.HeadProfileCache;
+import org.solterra.townyCatalog.profile.PaperProfileResolver;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+import org.solterra.townyCatalog.util.CatalogSettings;
 import org.solterra.townyCatalog.util.ConfigManager;
+import org.solterra.townyCatalog.util.GUITemplates;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class TownyCatalog extends JavaPlugin {
 
     private static TownyCatalog instance;
     private ConfigManager configManager;
+    private PlotIndex plotIndex;
+    private PlotHeightCache heightCache;
+    private IndexSnapshot indexSnapshot;
+    private BalanceCache balanceCache;
+    private HeadProfileCache headProfileCache;
+    private ScheduledTask headSaveTask;
+    private MetricsDumper metricsDumper;
+    private CatalogExporter exporter;
+    private CatalogHttpServer httpServer;
+    private ExecutorService workerPool;
 
     @Override
     public void onEnable() {
@@ -27,9 +61,59 @@ public final class TownyCatalog extends JavaPlugin {
 
         // Load configuration
         configManager = new ConfigManager(this);
+        GUITemplates.rebuild();
+
+        // Worker threads for filtering and sorting catalogs off the main thread
+        AtomicInteger workerId = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "TownyCatalog Worker #" + workerId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Cache of plot center heights used when teleporting to plots, forgetting plots taken off sale
+        plotIndex = new PlotIndex();
+        heightCache = new PlotHeightCache(this, workerPool, plotIndex);
+        plotIndex.addPlotListener(heightCache);
+
+        // Build the for-sale plot index, from the last snapshot where Towny's claims still match it
+        indexSnapshot = new IndexSnapshot(this, new File(getDataFolder(), "index.bin"), plotIndex, heightCache);
+        if (configManager.getSettings().snapshotEnabled()) {
+            indexSnapshot.restore();
+            indexSnapshot.start(configManager.getSettings().snapshotSaveMinutes());
+        } else {
+            plotIndex.rebuild();
+        }
+        plotIndex.addChangeListener(ViewManager::townChanged);
+        getLogger().info("Indexed " + plotIndex.size() + " plots for sale");
+
+        // Short-lived balance snapshots used for affordability filtering
+        balanceCache = new BalanceCache(workerPool);
+
+        // Cache of mayor head skins, kept across restarts
+        headProfileCache = new HeadProfileCache(new PaperProfileResolver(this), new File(getDataFolder(), "heads.yml"), getLogger());
+        headProfileCache.load();
+        startHeadSaves();
 
-        // Register event listener
+        // Optional periodic dump of the catalog metrics
+        metricsDumper = new MetricsDumper(this, new File(getDataFolder(), "metrics.log"));
+        metricsDumper.start(configManager.getSettings().metricsDumpMinutes());
+
+        // Catalog exports and the listing change journal for tools outside the server
+        exporter = new CatalogExporter(this, new File(getDataFolder(), "exports"), plotIndex,
+                () -> configManager.showCustomPlotNames());
+        plotIndex.addPlotListener(exporter);
+        startExporter();
+
+        // Optional read-only HTTP endpoint for the same tools
+        httpServer = new CatalogHttpServer(this, plotIndex, () -> configManager.getSettings());
+        startHttpServer();
+
+        // Register event listeners
         getServer().getPluginManager().registerEvents(new CatalogListener(), this);
+        getServer().getPluginManager().registerEvents(new PlotIndexListener(this, plotIndex), this);
+        getServer().getPluginManager().registerEvents(new PlotHeightListener(heightCache), this);
+        getServer().getPluginManager().registerEvents(new BalanceListener(this, balanceCache), this);
 
         // Register /town catalog subcommand
         TownyCommandAddonAPI.addSubCommand(CommandType.TOWN, "catalog", new CatalogCommand());
@@ -49,9 +133,87 @@ public final class TownyCatalog extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (metricsDumper != null) {
+            metricsDumper.stop();
+        }
+
+        if (headSaveTask != null) {
+            headSaveTask.cancel();
+        }
+
+        if (headProfileCache != null) {
+            headProfileCache.save();
+        }
+
+        if (httpServer != null) {
+            httpServer.stop();
+        }
+
+        if (exporter != null) {
+            exporter.shutdown();
+        }
+
+        if (indexSnapshot != null) {
+            indexSnapshot.stop();
+            if (configManager.getSettings().snapshotEnabled()) {
+                indexSnapshot.save();
+            }
+        }
+
+        if (workerPool != null) {
+            workerPool.shutdown();
+            try {
+                workerPool.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
         getLogger().info("TownyCatalog has been disabled!");
     }
 
+    /**
+     * Reloads the configuration, rebuilds the GUI templates, reschedules the metrics dump, index snapshots, head saves
+     * and exports and restarts the HTTP endpoint
+     * Cached town summaries carry the settings version they were built with, so they expire on their own
+     */
+    public void reloadConfiguration() {
+        configManager.reload();
+        GUITemplates.rebuild();
+        metricsDumper.start(configManager.getSettings().metricsDumpMinutes());
+        indexSnapshot.start(configManager.getSettings().snapshotEnabled()
+                ? configManager.getSettings().snapshotSaveMinutes() : 0);
+        startHeadSaves();
+        startExporter();
+        startHttpServer();
+    }
+
+    private void startHeadSaves() {
+        if (headSaveTask != null) {
+            headSaveTask.cancel();
+            headSaveTask = null;
+        }
+
+        int intervalMinutes = configManager.getSettings().headSaveMinutes();
+        if (intervalMinutes > 0) {
+            headSaveTask = CatalogScheduler.runAsyncTimer(this, headProfileCache::saveIfChanged, intervalMinutes);
+        }
+    }
+
+    private void startExporter() {
+        ExportFormat format = ExportFormat.parse(configManager.getSettings().exportFormat());
+        if (format == null) {
+            getLogger().warning("Unknown export format '" + configManager.getSettings().exportFormat() + "', using json");
+            format = ExportFormat.JSON;
+        }
+        exporter.start(configManager.getSettings().exportMinutes(), format, configManager.getSettings().exportJournal());
+    }
+
+    private void startHttpServer() {
+        CatalogSettings settings = configManager.getSettings();
+        httpServer.start(settings.httpEnabled(), settings.httpBindAddress(), settings.httpPort());
+    }
+
     /**
      * @return The plugin instance
      */
@@ -65,4 +227,46 @@ public final class TownyCatalog extends JavaPlugin {
     public ConfigManager getConfigManager() {
         return configManager;
     }
+
+    /**
+     * @return The index of plots for sale
+     */
+    public PlotIndex getPlotIndex() {
+        return plotIndex;
+    }
+
+    /**
+     * @return The plot center height cache
+     */
+    public PlotHeightCache getHeightCache() {
+        return heightCache;
+    }
+
+    /**
+     * @return The resident balance snapshots
+     */
+    public BalanceCache getBalanceCache() {
+        return balanceCache;
+    }
+
+    /**
+     * @return The mayor head skin cache
+     */
+    public HeadProfileCache getHeadProfileCache() {
+        return headProfileCache;
+    }
+
+    /**
+     * @return The catalog exporter
+     */
+    public CatalogExporter getExporter() {
+        return exporter;
+    }
+
+    /**
+     * @return The executor used for catalog work off the main thread
+     */
+    public ExecutorService getWorkerPool() {
+        return workerPool;
+    }
 }
@@ -0,0 +1,114 @@
+package org.solterra.townyCatalog.api;
+
+import com.palmergames.bukkit.towny.object.Resident;
+import org.solterra.townyCatalog.TownyCatalog;
+import org.solterra.townyCatalog.model.PlotSnapshot;
+import org.solterra.townyCatalog.model.TownSnapshot;
+import org.solterra.townyCatalog.util.CatalogSettings;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Immutable copy of the configured filters and the viewer's balance
+ * Captured on the main thread so filtering can run on a worker thread
+ */
+public class CatalogFilter {
+
+    private final boolean requireTownOpen;
+    private final boolean requireTownPublic;
+    private final boolean requireAffordable;
+    private final boolean residentialOnly;
+    private final double balance;
+    private final long settingsVersion;
+
+    private CatalogFilter(CatalogSettings settings, double balance) {
+        this.requireTownOpen = settings.requireTownOpen();
+        this.requireTownPublic = settings.requireTownPublic();
+        this.requireAffordable = settings.requireAffordable();
+        this.residentialOnly = settings.residentialOnly();
+        this.balance = requireAffordable ? balance : Double.POSITIVE_INFINITY;
+        this.settingsVersion = settings.version();
+    }
+
+    /**
+     * Captures the current filters along with the viewer's balance snapshot
+     *
+     * @param balance The viewer's balance, ignored unless affordability is filtered
+     * @return CatalogFilter snapshot
+     */
+    public static CatalogFilter capture(double balance) {
+        return new CatalogFilter(TownyCatalog.getInstance().getConfigManager().getSettings(), balance);
+    }
+
+    /**
+     * Fetches the balance a resident's filters need, off the main thread
+     * The economy is only asked when affordability actually matters
+     *
+     * @param resident The resident viewing the catalog
+     * @return Future completing with the balance to pass to {@link #capture(double)}
+     */
+    public static CompletableFuture<Double> fetchBalance(Resident resident) {
+        if (!TownyCatalog.getInstance().getConfigManager().getSettings().requireAffordable()) {
+            return CompletableFuture.completedFuture(Double.POSITIVE_INFINITY);
+        }
+        return TownyCatalogAPI.getBalance(resident);
+    }
+
+    /**
+     * @return true if only residential plots are accepted
+     */
+    public boolean isResidentialOnly() {
+        return residentialOnly;
+    }
+
+    /**
+     * @return The viewer's balance, or positive infinity if affordability is not filtered
+     */
+    public double getBalance() {
+        return balance;
+    }
+
+    /**
+     * @return Version of the settings the filters were captured from
+     */
+    public long getSettingsVersion() {
+        return settingsVersion;
+    }
+
+    /**
+     * @return true if results depend on the viewer's balance, so they cannot be shared between viewers
+     */
+    public boolean isViewerSpecific() {
+        return requireAffordable;
+    }
+
+    /**
+     * @param town The town to check
+     * @return true if the town passes the open and public filters
+     */
+    public boolean acceptsTown(TownSnapshot town) {
+        if (requireTownOpen && !town.isOpen()) {
+            return false;
+        }
+        return !requireTownPublic || town.isPublic();
+    }
+
+    /**
+     * @param price The price to check
+     * @return true if the price passes the affordability filter
+     */
+    public boolean acceptsPrice(double price) {
+        return !requireAffordable || price <= balance;
+    }
+
+    /**
+     * @param plot The plot to check
+     * @return true if the plot passes the residential and affordability filters
+     */
+    public boolean acceptsPlot(PlotSnapshot plot) {
+        if (residentialOnly && !plot.isResidential()) {
+            return false;
+        }
+        return acceptsPrice(plot.getPrice());
+    }
+}
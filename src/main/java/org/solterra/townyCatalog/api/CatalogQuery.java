@@ -0,0 +1,337 @@
+package org.solterra.townyCatalog.api;
+
+import com.palmergames.bukkit.towny.object.Town;
+import org.bukkit.Location;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A query over the plots for sale: which plots to match, how to order them and which page of the results to return
+ * Built with {@link #builder()} and run with {@link TownyCatalogAPI#query(CatalogQuery)}
+ */
+public class CatalogQuery {
+
+    /**
+     * What the results are ordered by
+     */
+    public enum SortKey {
+        PRICE,
+        /**
+         * Distance from the point set with {@link Builder#near}, nearest first regardless of direction
+         */
+        DISTANCE,
+        /**
+         * When the plot was listed; descending puts the newest listings first
+         */
+        LISTED
+    }
+
+    private final Set<UUID> towns;
+    private final double minPrice;
+    private final double maxPrice;
+    private final boolean residentialOnly;
+    private final boolean requireTownOpen;
+    private final boolean requireTownPublic;
+    private final String originWorld;
+    private final double originX;
+    private final double originZ;
+    private final double maxDistance;
+    private final SortKey sortKey;
+    private final boolean ascending;
+    private final int offset;
+    private final int limit;
+
+    private CatalogQuery(Builder builder) {
+        this.towns = Collections.unmodifiableSet(new LinkedHashSet<>(builder.towns));
+        this.minPrice = builder.minPrice;
+        this.maxPrice = builder.maxPrice;
+        this.residentialOnly = builder.residentialOnly;
+        this.requireTownOpen = builder.requireTownOpen;
+        this.requireTownPublic = builder.requireTownPublic;
+        this.originWorld = builder.originWorld;
+        this.originX = builder.originX;
+        this.originZ = builder.originZ;
+        this.maxDistance = builder.maxDistance;
+        this.sortKey = builder.sortKey;
+        this.ascending = builder.ascending;
+        this.offset = builder.offset;
+        this.limit = builder.limit;
+    }
+
+    /**
+     * @return A builder matching every plot for sale, cheapest first, with no limit
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return UUIDs of the towns to search, empty for every town
+     */
+    public Set<UUID> getTowns() {
+        return towns;
+    }
+
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public boolean isResidentialOnly() {
+        return residentialOnly;
+    }
+
+    public boolean isRequireTownOpen() {
+        return requireTownOpen;
+    }
+
+    public boolean isRequireTownPublic() {
+        return requireTownPublic;
+    }
+
+    /**
+     * @return true if the query filters on town open or public state
+     */
+    public boolean filtersTownState() {
+        return requireTownOpen || requireTownPublic;
+    }
+
+    /**
+     * @return World of the point distances are measured from, or null if none was set
+     */
+    public String getOriginWorld() {
+        return originWorld;
+    }
+
+    public double getOriginX() {
+        return originX;
+    }
+
+    public double getOriginZ() {
+        return originZ;
+    }
+
+    /**
+     * @return Largest accepted distance in blocks when sorting by distance, positive infinity for any distance
+     */
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public static class Builder {
+        private final Set<UUID> towns = new LinkedHashSet<>();
+        private double minPrice = 0;
+        private double maxPrice = Double.POSITIVE_INFINITY;
+        private boolean residentialOnly;
+        private boolean requireTownOpen;
+        private boolean requireTownPublic;
+        private String originWorld;
+        private double originX;
+        private double originZ;
+        private double maxDistance = Double.POSITIVE_INFINITY;
+        private SortKey sortKey = SortKey.PRICE;
+        private boolean ascending = true;
+        private int offset;
+        private int limit = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        /**
+         * Limits the search to a town, may be called more than once to search several towns
+         *
+         * @param townUUID The town's UUID
+         * @return This builder
+         */
+        public Builder town(UUID townUUID) {
+            towns.add(townUUID);
+            return this;
+        }
+
+        /**
+         * Limits the search to a town, may be called more than once to search several towns
+         *
+         * @param town The town
+         * @return This builder
+         */
+        public Builder town(Town town) {
+            return town(town.getUUID());
+        }
+
+        /**
+         * @param minPrice Lowest accepted price, inclusive
+         * @return This builder
+         */
+        public Builder minPrice(double minPrice) {
+            this.minPrice = minPrice;
+            return this;
+        }
+
+        /**
+         * @param maxPrice Highest accepted price, inclusive
+         * @return This builder
+         */
+        public Builder maxPrice(double maxPrice) {
+            this.maxPrice = maxPrice;
+            return this;
+        }
+
+        /**
+         * @param residentialOnly true to only match residential plots
+         * @return This builder
+         */
+        public Builder residentialOnly(boolean residentialOnly) {
+            this.residentialOnly = residentialOnly;
+            return this;
+        }
+
+        /**
+         * @param requireTownOpen true to only match plots in open towns
+         * @return This builder
+         */
+        public Builder requireTownOpen(boolean requireTownOpen) {
+            this.requireTownOpen = requireTownOpen;
+            return this;
+        }
+
+        /**
+         * @param requireTownPublic true to only match plots in public towns
+         * @return This builder
+         */
+        public Builder requireTownPublic(boolean requireTownPublic) {
+            this.requireTownPublic = requireTownPublic;
+            return this;
+        }
+
+        /**
+         * Applies the residential and affordability filters of a captured filter
+         * Town open and public filters are left out, as they are usually checked when the town is chosen
+         *
+         * @param filter The captured filters
+         * @return This builder
+         */
+        public Builder filter(CatalogFilter filter) {
+            this.residentialOnly = filter.isResidentialOnly();
+            this.maxPrice = filter.getBalance();
+            return this;
+        }
+
+        /**
+         * Sets the point distances are measured from
+         *
+         * @param location The point, usually the viewer's location
+         * @return This builder
+         */
+        public Builder near(Location location) {
+            return near(location.getWorld().getName(), location.getX(), location.getZ());
+        }
+
+        /**
+         * Sets the point distances are measured from
+         *
+         * @param worldName The world name
+         * @param x         Block X
+         * @param z         Block Z
+         * @return This builder
+         */
+        public Builder near(String worldName, double x, double z) {
+            this.originWorld = worldName;
+            this.originX = x;
+            this.originZ = z;
+            return this;
+        }
+
+        /**
+         * Limits a distance sort to plots whose center is within a radius of the point
+         *
+         * @param maxDistance Radius in blocks
+         * @return This builder
+         */
+        public Builder maxDistance(double maxDistance) {
+            this.maxDistance = maxDistance;
+            return this;
+        }
+
+        /**
+         * @param sortKey   What to order the results by
+         * @param ascending true for lowest to highest, false for highest to lowest
+         * @return This builder
+         */
+        public Builder sortBy(SortKey sortKey, boolean ascending) {
+            this.sortKey = sortKey;
+            this.ascending = ascending;
+            return this;
+        }
+
+        /**
+         * @param offset Number of matching plots to skip
+         * @return This builder
+         */
+        public Builder offset(int offset) {
+            this.offset = offset;
+            return this;
+        }
+
+        /**
+         * @param limit Maximum number of plots to return
+         * @return This builder
+         */
+        public Builder limit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * Sets the offset and limit to select one page
+         *
+         * @param page     The page number (0-indexed)
+         * @param pageSize Number of plots per page
+         * @return This builder
+         */
+        public Builder page(int page, int pageSize) {
+            this.offset = Math.multiplyExact(page, pageSize);
+            this.limit = pageSize;
+            return this;
+        }
+
+        /**
+         * @return The query
+         * @throws IllegalArgumentException if the offset is negative, the limit is not positive,
+         *                                  or the query sorts by distance without a point
+         */
+        public CatalogQuery build() {
+            if (sortKey == SortKey.DISTANCE && originWorld == null) {
+                throw new IllegalArgumentException("sorting by distance needs a point, set with near");
+            }
+            if (offset < 0) {
+                throw new IllegalArgumentException("offset must not be negative: " + offset);
+            }
+            if (limit <= 0) {
+                throw new IllegalArgumentException("limit must be positive: " + limit);
+            }
+            return new CatalogQuery(this);
+        }
+    }
+}
@@ -1,20 +1,43 @@
 package org.solterra.townyCatalog.api;
 
 import com.palmergames.bukkit.towny.TownyAPI;
-import com.palmergames.bukkit.towny.TownyEconomyHandler;
 import com.palmergames.bukkit.towny.TownySettings;
 import com.palmergames.bukkit.towny.object.Resident;
 import com.palmergames.bukkit.towny.object.Town;
 import com.palmergames.bukkit.towny.object.TownBlock;
-import com.palmergames.bukkit.towny.object.TownBlockType;
+import com.palmergames.bukkit.towny.object.WorldCoord;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.solterra.townyCatalog.TownyCatalog;
+import org.solterra.townyCatalog.index.PlotHeightCache;
+import org.solterra.townyCatalog.index.PlotIndex;
+import org.solterra.townyCatalog.index.PlotKey;
+import org.solterra.townyCatalog.index.PlotStore;
+import org.solterra.townyCatalog.index.PlotWindow;
+import org.solterra.townyCatalog.index.SpatialGrid;
+import org.solterra.townyCatalog.index.TownListing;
+import org.solterra.townyCatalog.index.TownRanking;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.model.CatalogPage;
 import org.solterra.townyCatalog.model.PlotInfo;
-import org.solterra.townyCatalog.util.ConfigManager;
+import org.solterra.townyCatalog.model.PlotSnapshot;
+import org.solterra.townyCatalog.model.PriceStats;
+import org.solterra.townyCatalog.model.TownSnapshot;
+import org.solterra.townyCatalog.model.TownSummary;
+import org.solterra.townyCatalog.util.CatalogSettings;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 /**
@@ -24,113 +47,555 @@ import java.util.stream.Collectors;
 public class TownyCatalogAPI {
 
     /**
-     * Gets the configuration manager
-     * @return ConfigManager instance
+     * Gets the current settings snapshot
+     * @return CatalogSettings instance
      */
-    private static ConfigManager getConfig() {
-        return TownyCatalog.getInstance().getConfigManager();
+    private static CatalogSettings getConfig() {
+        return TownyCatalog.getInstance().getConfigManager().getSettings();
     }
 
     /**
-     * Checks if a town has any plots for sale that the resident can afford
+     * Gets the index of plots for sale
+     * @return PlotIndex instance
+     */
+    private static PlotIndex getIndex() {
+        return TownyCatalog.getInstance().getPlotIndex();
+    }
+
+    /**
+     * Gets the plot center height cache
+     * @return PlotHeightCache instance
+     */
+    private static PlotHeightCache getHeightCache() {
+        return TownyCatalog.getInstance().getHeightCache();
+    }
+
+    /**
+     * Checks if a town has any plots for sale within a balance
+     * Only the town's cheapest plot needs to be compared
+     * Fetch a resident's balance with {@link #getBalance(Resident)} first
      *
-     * @param town     The town to check
-     * @param resident The resident checking affordability
+     * @param town    The town to check
+     * @param balance The balance to compare against
      * @return true if there are affordable plots for sale
      */
-    public static boolean hasPurchasablePlots(Town town, Resident resident) {
-        return town.getTownBlocks().stream()
-                .filter(TownBlock::isForSale)
-                .anyMatch(plotBlock -> canAffordPlot(plotBlock.getPlotPrice(), resident));
+    public static boolean hasPurchasablePlots(Town town, double balance) {
+        TownListing listing = getIndex().getListing(town.getUUID());
+        return listing != null && canAffordPlot(listing.getMinPrice(), balance);
     }
 
     /**
-     * Checks if a resident can afford a given price
+     * Checks if a balance covers a given price
      *
      * @param plotPrice The price to check
-     * @param resident  The resident to check
-     * @return true if the resident can afford the price
+     * @param balance   The balance to compare against
+     * @return true if the balance covers the price
      */
-    public static boolean canAffordPlot(double plotPrice, Resident resident) {
-        return !TownyEconomyHandler.isActive() || resident.getAccount().canPayFromHoldings(plotPrice);
+    public static boolean canAffordPlot(double plotPrice, double balance) {
+        return plotPrice <= balance;
+    }
+
+    /**
+     * Gets the balance a resident can spend on plots, off the calling thread
+     * Uses the resident's balance snapshot while it is fresh, so repeated checks cost a single economy lookup
+     *
+     * @param resident The resident to check
+     * @return Future completing with the resident's holdings, or positive infinity if the economy is disabled
+     */
+    public static CompletableFuture<Double> getBalance(Resident resident) {
+        return TownyCatalog.getInstance().getBalanceCache().get(resident);
+    }
+
+    /**
+     * Discards a resident's balance snapshot, call after anything that changes their holdings
+     *
+     * @param residentUUID The resident's UUID
+     */
+    public static void refreshBalance(UUID residentUUID) {
+        TownyCatalog.getInstance().getBalanceCache().invalidate(residentUUID);
     }
 
     /**
      * Gets all plots for sale in a town
+     * Must be called on the main thread; fetch a resident's balance with {@link #getBalance(Resident)} first
      *
-     * @param town     The town to search
-     * @param resident The resident checking affordability
-     * @return List of all affordable plots
-     */
-    public static List<TownBlock> getAllPurchasablePlotsIn(Town town, Resident resident) {
-        ConfigManager config = getConfig();
-        return town.getTownBlocks().stream()
-                .filter(TownBlock::isForSale)
-                .filter(plotBlock -> {
-                    // Filter by residential type if configured
-                    if (config.residentialOnly() && !plotBlock.getType().equals(TownBlockType.RESIDENTIAL)) {
-                        return false;
-                    }
-                    // Filter by affordability if configured
-                    return !config.requireAffordable() || canAffordPlot(plotBlock.getPlotPrice(), resident);
-                })
-                .collect(Collectors.toList());
+     * @param town    The town to search
+     * @param balance The balance checking affordability
+     * @return List of all affordable plots, from lowest to highest price
+     */
+    public static List<TownBlock> getAllPurchasablePlotsIn(Town town, double balance) {
+        CatalogSettings config = getConfig();
+        TownListing listing = getIndex().getListing(town.getUUID());
+        if (listing == null) {
+            return new ArrayList<>();
+        }
+
+        // Affordable plots are a prefix of the price-sorted listing, found with one balance lookup
+        TownListing.PriceOrder order = listing.getPriceOrder();
+        long[] keys = order.getKeys();
+        int end = config.requireAffordable()
+                ? TownListing.countAtOrBelow(order.getPrices(), balance)
+                : keys.length;
+
+        List<TownBlock> purchasable = new ArrayList<>(end);
+        for (int i = 0; i < end; i++) {
+            // Filter by residential type if configured
+            if (config.residentialOnly() && !order.getResidential()[i]) {
+                continue;
+            }
+
+            TownBlock plotBlock = getIndex().resolve(keys[i]);
+            if (plotBlock != null) {
+                purchasable.add(plotBlock);
+            }
+        }
+        return purchasable;
     }
 
     /**
-     * Gets all towns that have plots the resident can afford
+     * Gets all towns that have plots within a balance
+     * Must be called on the main thread; fetch a resident's balance with {@link #getBalance(Resident)} first
      *
-     * @param resident The resident to check
+     * @param balance The balance to check
      * @return List of towns with affordable plots
      */
-    public static List<Town> getTownsWithPurchasablePlots(Resident resident) {
-        ConfigManager config = getConfig();
-        return TownyAPI.getInstance().getTowns().stream()
+    public static List<Town> getTownsWithPurchasablePlots(double balance) {
+        CatalogSettings config = getConfig();
+        return getIndex().getTownIds().stream()
+                .map(TownyAPI.getInstance()::getTown)
+                .filter(Objects::nonNull)
                 .filter(town -> {
                     // Filter by town open status if configured
                     if (config.requireTownOpen() && !town.isOpen()) {
                         return false;
                     }
                     // Filter by town public status if configured
-                    return (!config.requireTownPublic() || town.isPublic()) && hasPurchasablePlots(town, resident);
+                    return (!config.requireTownPublic() || town.isPublic()) && hasPurchasablePlots(town, balance);
                 })
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Captures every indexed town with plots for sale, along with the price aggregates of its matching plots
+     * Individual plots are not captured; use {@link #snapshotTown(Town, CatalogFilter)} for a single town's plots
+     * Must be called on the main thread; the result can be filtered anywhere
+     *
+     * @param filter The captured filters
+     * @return Snapshots of all towns with plots for sale
+     */
+    public static List<TownSnapshot> snapshotTowns(CatalogFilter filter) {
+        return snapshotTowns(getIndex().getTownIds(), filter);
+    }
+
+    /**
+     * Captures the given towns along with the price aggregates of their matching plots
+     * Must be called on the main thread; the result can be filtered anywhere
+     *
+     * @param townUUIDs UUIDs of the towns to capture
+     * @param filter    The captured filters
+     * @return Snapshots of the towns that still have plots for sale
+     */
+    public static List<TownSnapshot> snapshotTowns(Collection<UUID> townUUIDs, CatalogFilter filter) {
+        List<TownSnapshot> snapshots = new ArrayList<>();
+        for (UUID townUUID : townUUIDs) {
+            TownSnapshot snapshot = snapshotTownStats(townUUID, filter);
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Finds towns with plots for sale whose name starts with the search text, ignoring case
+     * Custom plot names are matched too while the catalog shows them
+     * Safe to call from any thread
+     *
+     * @param prefix The search text
+     * @return UUIDs of the matching towns, towns matched by name first
+     */
+    public static Set<UUID> searchTowns(String prefix) {
+        long startNanos = System.nanoTime();
+        Set<UUID> matches = getIndex().searchTowns(prefix, getConfig().showCustomPlotNames());
+        CatalogMetrics.time(CatalogMetrics.Timer.NAME_SEARCH, startNanos);
+        return matches;
+    }
+
+    /**
+     * Captures a single town along with the price aggregates of its matching plots, without individual plots
+     * Must be called on the main thread
+     *
+     * @param townUUID The UUID of the town
+     * @param filter   The captured filters
+     * @return Snapshot of the town, or null if it no longer exists or has no plots for sale
+     */
+    public static TownSnapshot snapshotTownStats(UUID townUUID, CatalogFilter filter) {
+        Town town = TownyAPI.getInstance().getTown(townUUID);
+        TownListing listing = getIndex().getListing(townUUID);
+        if (town == null || listing == null) {
+            return null;
+        }
+        return new TownSnapshot(town, town.getName(), town.isOpen(), town.isPublic(), List.of(),
+                getStats(listing, filter), getIndex().getTownVersion(townUUID));
+    }
+
+    /**
+     * Captures a town, its plots for sale and the price aggregates of its matching plots
+     * Must be called on the main thread; the result can be filtered anywhere
+     *
+     * @param town   The town to capture
+     * @param filter The captured filters
+     * @return Snapshot of the town
+     */
+    public static TownSnapshot snapshotTown(Town town, CatalogFilter filter) {
+        List<PlotSnapshot> plots = new ArrayList<>();
+        PriceStats stats = PriceStats.EMPTY;
+        TownListing listing = getIndex().getListing(town.getUUID());
+        if (listing != null) {
+            TownListing.PriceOrder order = listing.getPriceOrder();
+            for (int i = 0; i < order.size(); i++) {
+                plots.add(new PlotSnapshot(order.getKeys()[i], order.getPrices()[i], order.getResidential()[i]));
+            }
+            stats = getStats(listing, filter);
+        }
+        return new TownSnapshot(town, town.getName(), town.isOpen(), town.isPublic(), plots, stats,
+                getIndex().getTownVersion(town.getUUID()));
+    }
+
+    /**
+     * Reads a listing's maintained price aggregates for the plots a filter accepts
+     */
+    private static PriceStats getStats(TownListing listing, CatalogFilter filter) {
+        return listing.getStats(filter.isResidentialOnly(), filter.getBalance());
+    }
+
+    /**
+     * Filters town snapshots and summarises their matching plots, sorted alphabetically
+     * Does not touch Towny, so it is safe to call from any thread
+     *
+     * @param towns  The captured towns
+     * @param filter The captured filters
+     * @return Summaries of towns with at least one matching plot
+     */
+    public static List<TownSummary> summariseTowns(List<TownSnapshot> towns, CatalogFilter filter) {
+        List<TownSummary> summaries = new ArrayList<>();
+        for (TownSnapshot town : towns) {
+            TownSummary summary = summariseTown(town, filter);
+            if (summary != null) {
+                summaries.add(summary);
+            }
+        }
+        return orderTowns(summaries, TownRanking.Key.NAME);
+    }
+
+    /**
+     * Gets every town with plots for sale in one of the orders the index maintains
+     * Safe to call from any thread
+     *
+     * @param key What to order the towns by
+     * @return UUIDs of the towns in order, unmodifiable
+     */
+    public static List<UUID> getTownOrder(TownRanking.Key key) {
+        return getIndex().getRanking().getOrder(key);
+    }
+
+    /**
+     * Puts town summaries into one of the maintained town orders
+     * The order is already sorted, so this is a single pass over it rather than a sort
+     * Safe to call from any thread
+     *
+     * @param towns The summaries, in any order
+     * @param key   What to order the towns by
+     * @return The summaries in order; any town the index has not ranked yet comes last
+     */
+    public static List<TownSummary> orderTowns(Collection<TownSummary> towns, TownRanking.Key key) {
+        Map<UUID, TownSummary> byTown = new LinkedHashMap<>();
+        for (TownSummary summary : towns) {
+            byTown.put(summary.getTown().getUUID(), summary);
+        }
+
+        List<TownSummary> ordered = new ArrayList<>(byTown.size());
+        for (UUID townUUID : getTownOrder(key)) {
+            TownSummary summary = byTown.remove(townUUID);
+            if (summary != null) {
+                ordered.add(summary);
+            }
+        }
+        ordered.addAll(byTown.values());
+        return ordered;
+    }
+
+    /**
+     * Filters a town snapshot and summarises its matching plots from the captured price aggregates
+     * Does not touch Towny, so it is safe to call from any thread
+     *
+     * @param town   The captured town
+     * @param filter The captured filters
+     * @return Summary of the town, or null if it is filtered out or has no matching plots
+     */
+    public static TownSummary summariseTown(TownSnapshot town, CatalogFilter filter) {
+        if (!filter.acceptsTown(town)) {
+            return null;
+        }
+
+        PriceStats stats = town.getStats();
+        if (stats.getCount() == 0) {
+            return null;
+        }
+        return new TownSummary(town.getTown(), town.getName(), stats.getCount(), stats.getMinPrice(),
+                stats.getMaxPrice(), town.getVersion(), filter.isViewerSpecific());
+    }
+
+    /**
+     * Filters a town snapshot's plots and sorts them by price
+     * Does not touch Towny, so it is safe to call from any thread
+     *
+     * @param town      The captured town
+     * @param filter    The captured filters
+     * @param ascending true for lowest to highest, false for highest to lowest
+     * @return Keys of the matching plots in sorted order
+     */
+    public static long[] filterPlots(TownSnapshot town, CatalogFilter filter, boolean ascending) {
+        // Plots are captured in ascending price order, so no sort is needed and affordability ends at the first miss
+        List<PlotSnapshot> captured = town.getPlots();
+        long[] keys = new long[captured.size()];
+        int count = 0;
+        for (PlotSnapshot plot : captured) {
+            if (!filter.acceptsPrice(plot.getPrice())) {
+                break;
+            }
+            if (filter.acceptsPlot(plot)) {
+                keys[count++] = plot.getKey();
+            }
+        }
+
+        if (!ascending) {
+            for (int i = 0, j = count - 1; i < j; i++, j--) {
+                long key = keys[i];
+                keys[i] = keys[j];
+                keys[j] = key;
+            }
+        }
+        return Arrays.copyOf(keys, count);
+    }
+
+    /**
+     * Runs a catalog query and reads back a single page of results
+     * Safe to call from any thread; town open and public filters use the flags kept in the index, which follow Towny
+     * within a tick
+     *
+     * @param query The query to run
+     * @return The requested page along with the total number of matching plots
+     */
+    public static CatalogPage query(CatalogQuery query) {
+        PlotIndex index = getIndex();
+        Collection<UUID> townIds = query.getTowns().isEmpty() ? index.getTownIds() : query.getTowns();
+
+        Map<UUID, TownListing> listings = new LinkedHashMap<>();
+        for (UUID townUUID : townIds) {
+            TownListing listing = index.getListing(townUUID);
+            if (listing != null && acceptsTownState(townUUID, query)) {
+                listings.put(townUUID, listing);
+            }
+        }
+
+        PlotWindow window = switch (query.getSortKey()) {
+            case PRICE -> selectByPrice(new ArrayList<>(listings.values()), query);
+            case DISTANCE -> selectByDistance(listings, query);
+            case LISTED -> selectByListing(listings.values(), query);
+        };
+
+        // Only the plots on the requested page are read from the store
+        boolean withNames = getConfig().showCustomPlotNames();
+        List<PlotInfo> plots = new ArrayList<>(window.getKeys().length);
+        for (long key : window.getKeys()) {
+            PlotInfo plotInfo = index.getStore().describe(key, withNames);
+            if (plotInfo != null) {
+                plots.add(plotInfo);
+            }
+        }
+        return new CatalogPage(plots, window.getTotal(), query.getOffset(), query.getLimit());
+    }
+
+    /**
+     * Selects a query's window by price
+     * A single town only orders the requested window, so opening a catalog after its plots changed doesn't
+     * wait for the whole town to be re-sorted
+     */
+    private static PlotWindow selectByPrice(List<TownListing> listings, CatalogQuery query) {
+        if (listings.size() == 1) {
+            return listings.get(0).selectWindow(query.getMinPrice(), query.getMaxPrice(), query.isResidentialOnly(),
+                    query.isAscending(), query.getOffset(), query.getLimit());
+        }
+
+        List<TownListing.PriceOrder> orders = new ArrayList<>(listings.size());
+        for (TownListing listing : listings) {
+            orders.add(listing.getPriceOrder());
+        }
+        return PlotWindow.select(orders, query.getMinPrice(), query.getMaxPrice(), query.isResidentialOnly(),
+                query.isAscending(), query.getOffset(), query.getLimit());
+    }
+
+    /**
+     * Selects a query's window by when plots were listed
+     * Each town keeps its plots in listing order, so the towns are merged rather than sorted
+     */
+    private static PlotWindow selectByListing(Collection<TownListing> listings, CatalogQuery query) {
+        List<TownListing.ListingOrder> orders = new ArrayList<>(listings.size());
+        for (TownListing listing : listings) {
+            orders.add(listing.getListingOrder());
+        }
+        return PlotWindow.selectByListing(orders, query.getMinPrice(), query.getMaxPrice(), query.isResidentialOnly(),
+                !query.isAscending(), query.getOffset(), query.getLimit());
+    }
+
+    /**
+     * Selects a query's window by distance from its point, nearest first
+     * Queries limited to towns scan those towns' plots; queries over every town walk the spatial grid outwards
+     * from the point, so only the cells near it are visited
+     */
+    private static PlotWindow selectByDistance(Map<UUID, TownListing> listings, CatalogQuery query) {
+        PlotStore store = getIndex().getStore();
+        double blockSize = TownySettings.getTownBlockSize();
+        int worldId = store.worldId(query.getOriginWorld());
+        if (worldId == PlotStore.MISSING) {
+            // No plot was ever indexed in that world
+            return PlotWindow.slice(new long[0], 0, query.getOffset(), query.getLimit());
+        }
+        double x = query.getOriginX() / blockSize;
+        double z = query.getOriginZ() / blockSize;
+        double maxDistance = query.getMaxDistance() / blockSize;
+
+        // Listings hold prices as whole cents too, so this matches the price-ordered paths at every boundary
+        LongPredicate accepts = key -> {
+            long priceCents = store.getPriceCents(key);
+            return priceCents >= 0 && priceCents / 100.0 >= query.getMinPrice() && priceCents / 100.0 <= query.getMaxPrice()
+                    && (!query.isResidentialOnly() || store.isResidential(key));
+        };
+
+        if (!query.getTowns().isEmpty()) {
+            // A few towns are cheaper to scan than the grid cells between their plots
+            List<long[]> townKeys = new ArrayList<>(listings.size());
+            int size = 0;
+            for (TownListing listing : listings.values()) {
+                long[] keys = listing.getKeys();
+                townKeys.add(keys);
+                size += keys.length;
+            }
+
+            long[] keys = new long[size];
+            double[] distances = new double[size];
+            int count = 0;
+            for (long[] candidates : townKeys) {
+                for (long key : candidates) {
+                    if (PlotKey.worldId(key) == worldId && accepts.test(key)) {
+                        keys[count] = key;
+                        distances[count++] = SpatialGrid.distance(key, x, z);
+                    }
+                }
+            }
+            return PlotWindow.selectUnsorted(keys, distances, new boolean[count], count, 0, maxDistance, false, true,
+                    query.getOffset(), query.getLimit());
+        }
+
+        if (query.filtersTownState()) {
+            accepts = accepts.and(key -> listings.containsKey(store.getTownUUID(key)));
+        }
+
+        SpatialGrid grid = getIndex().getGrid();
+        int total = grid.count(worldId, x, z, maxDistance, accepts);
+        int end = (int) Math.min(total, (long) query.getOffset() + query.getLimit());
+        return PlotWindow.slice(grid.nearest(worldId, x, z, end, maxDistance, accepts), total,
+                query.getOffset(), query.getLimit());
+    }
+
+    /**
+     * Finds the plots for sale closest to a location, nearest first
+     * Configured filters are not applied; use {@link #query(CatalogQuery)} for filtered or paged results
+     *
+     * @param origin The location to measure from
+     * @param count  Maximum number of plots to return
+     * @return Up to count plots in the origin's world
+     */
+    public static List<PlotInfo> findNearestPlots(Location origin, int count) {
+        return query(CatalogQuery.builder()
+                .near(origin)
+                .sortBy(CatalogQuery.SortKey.DISTANCE, true)
+                .limit(count)
+                .build()).getPlots();
+    }
+
+    /**
+     * Finds every plot for sale within a radius of a location, nearest first
+     * Configured filters are not applied; use {@link #query(CatalogQuery)} for filtered or paged results
+     *
+     * @param origin The location to measure from
+     * @param radius Radius in blocks, measured to plot centers
+     * @return The plots within the radius
+     */
+    public static List<PlotInfo> findPlotsWithin(Location origin, double radius) {
+        return query(CatalogQuery.builder()
+                .near(origin)
+                .maxDistance(radius)
+                .sortBy(CatalogQuery.SortKey.DISTANCE, true)
+                .build()).getPlots();
+    }
+
+    /**
+     * Checks a town against a query's open and public filters, using the flags the town was last ranked with
+     */
+    private static boolean acceptsTownState(UUID townUUID, CatalogQuery query) {
+        if (!query.filtersTownState()) {
+            return true;
+        }
+
+        TownRanking ranking = getIndex().getRanking();
+        if (query.isRequireTownOpen() && !ranking.isOpen(townUUID)) {
+            return false;
+        }
+        return !query.isRequireTownPublic() || ranking.isPublic(townUUID);
+    }
+
     /**
      * Converts a TownBlock to a PlotInfo object for GUI display
      *
      * @param plotBlock The TownBlock to convert
-     * @return PlotInfo object with display data
+     * @return PlotInfo object with display data, or null if the plot is not for sale
      */
     public static PlotInfo getPlotDisplayInfo(TownBlock plotBlock) {
         if (plotBlock == null) {
             return null;
         }
 
-        String townName = plotBlock.getTownOrNull() != null ? plotBlock.getTownOrNull().getName() : "Unknown";
-        double price = plotBlock.getPlotPrice();
-        TownBlockType plotType = plotBlock.getType();
-        Location location = getPlotCenterLocation(plotBlock);
-
-        // Custom plot name
-        String plotName = plotBlock.getName() != null ? plotBlock.getName() : "";
-
-        if (!getConfig().showCustomPlotNames()) {
-            plotName = "";
-        }
+        return getPlotDisplayInfo(getIndex().keyOf(plotBlock.getWorldCoord()));
+    }
 
-        int plotX = plotBlock.getX();
-        int plotZ = plotBlock.getZ();
-        String worldName = plotBlock.getWorldCoord().getBukkitWorld() != null
-                ? plotBlock.getWorldCoord().getBukkitWorld().getName()
-                : "Unknown";
+    /**
+     * Reads an indexed plot's display data from the plot store
+     * Does not touch Towny, so it is safe to call from any thread
+     *
+     * @param key The plot's packed key
+     * @return PlotInfo object with display data, or null if the plot is no longer for sale
+     */
+    public static PlotInfo getPlotDisplayInfo(long key) {
+        // Location is resolved lazily by PlotInfo, so rendering a page never loads chunks
+        return getIndex().getStore().describe(key, getConfig().showCustomPlotNames());
+    }
 
-        return new PlotInfo(plotBlock,plotName, townName, price, plotType, location, plotX, plotZ, worldName);
+    /**
+     * Looks up the Towny townblock of an indexed plot, must be called on the main thread
+     *
+     * @param key The plot's packed key
+     * @return The townblock, or null if the coordinate is no longer claimed
+     */
+    public static TownBlock getPlotBlock(long key) {
+        return getIndex().resolve(key);
     }
 
     /**
      * Gets the center location of a plot for display purposes
+     * Heights come from the plot height cache; a miss reads the world synchronously, so this must be called on the
+     * thread owning the plot's region, the main thread on Paper
      *
      * @param plotBlock The plot to get the location for
      * @return Location at the center of the plot
@@ -140,18 +605,63 @@ public class TownyCatalogAPI {
             return null;
         }
 
+        long startNanos = System.nanoTime();
         int blockSize = TownySettings.getTownBlockSize();
         World world = plotBlock.getWorldCoord().getBukkitWorld();
         if (world == null) {
             return null;
         }
         int halfBlockSize = blockSize / 2;
-        double centerX = plotBlock.getX() * blockSize;
-        double centerZ = plotBlock.getZ() * blockSize;
-        Location centerLocation = new Location(world, centerX + halfBlockSize, 64.0, centerZ + halfBlockSize);
-        centerLocation.setY(world.getHighestBlockYAt(centerLocation) + 1);
+        int centerX = plotBlock.getX() * blockSize + halfBlockSize;
+        int centerZ = plotBlock.getZ() * blockSize + halfBlockSize;
+        int height = getHeightCache().getHeight(world, plotBlock.getWorldCoord(), centerX, centerZ);
+        CatalogMetrics.time(CatalogMetrics.Timer.PLOT_LOCATION, startNanos);
+
+        return new Location(world, centerX, height + 1, centerZ);
+    }
+
+    /**
+     * Gets the center location of a plot without blocking the main thread
+     * On a cache miss the chunk is loaded asynchronously and its height is read off the main thread
+     *
+     * @param plotBlock The plot to get the location for
+     * @return Future completing with the location at the center of the plot, or null if its world is not loaded
+     */
+    public static CompletableFuture<Location> getPlotCenterLocationAsync(TownBlock plotBlock) {
+        if (plotBlock == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        WorldCoord worldCoord = plotBlock.getWorldCoord();
+        return getPlotCenterLocationAsync(worldCoord.getWorldName(), worldCoord.getX(), worldCoord.getZ());
+    }
+
+    /**
+     * Gets the center location of a townblock coordinate without blocking the main thread
+     *
+     * @param worldName The world name
+     * @param plotX     Townblock X
+     * @param plotZ     Townblock Z
+     * @return Future completing with the location at the center of the plot, or null if its world is not loaded
+     */
+    public static CompletableFuture<Location> getPlotCenterLocationAsync(String worldName, int plotX, int plotZ) {
+        WorldCoord worldCoord = new WorldCoord(worldName, plotX, plotZ);
+        World world = worldCoord.getBukkitWorld();
+        if (world == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int blockSize = TownySettings.getTownBlockSize();
+        int halfBlockSize = blockSize / 2;
+        int centerX = plotX * blockSize + halfBlockSize;
+        int centerZ = plotZ * blockSize + halfBlockSize;
 
-        return centerLocation;
+        long startNanos = System.nanoTime();
+        return getHeightCache().getHeightAsync(world, worldCoord, centerX, centerZ)
+                .thenApply(height -> {
+                    CatalogMetrics.time(CatalogMetrics.Timer.PLOT_LOCATION, startNanos);
+                    return new Location(world, centerX, height + 1, centerZ);
+                });
     }
 
     /**
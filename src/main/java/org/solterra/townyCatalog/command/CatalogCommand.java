@@ -7,10 +7,12 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.solterra.townyCatalog.TownyCatalog;
 import org.solterra.townyCatalog.gui.TownSelectionGUI;
+import org.solterra.townyCatalog.util.CatalogScheduler;
 
 /**
- * Command to open the Towny Catalog GUI via /town catalog
+ * Command to open the Towny Catalog GUI via /town catalog [search]
  */
 public class CatalogCommand implements CommandExecutor {
 
@@ -26,8 +28,11 @@ public class CatalogCommand implements CommandExecutor {
             return true;
         }
 
-        // Open the town selection GUI
-        TownSelectionGUI.openTownSelection(player);
+        // Open the town selection GUI, filtered by any search text after the command
+        // Towny may run its subcommands off the player's thread on Folia, where inventories can't be opened
+        String search = String.join(" ", args).trim();
+        CatalogScheduler.onEntity(TownyCatalog.getInstance(), player,
+                () -> TownSelectionGUI.openTownSelection(player, search.isEmpty() ? null : search));
         return true;
     }
 }
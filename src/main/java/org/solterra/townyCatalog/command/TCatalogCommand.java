@@ -11,6 +11,10 @@ import org.bukkit.command.TabCompleter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.solterra.townyCatalog.TownyCatalog;
+import org.solterra.townyCatalog.export.ExportFormat;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.metrics.LatencyHistogram;
+import org.solterra.townyCatalog.util.CatalogScheduler;
 import org.solterra.townyCatalog.util.ConfigManager;
 
 import java.util.ArrayList;
@@ -18,7 +22,7 @@ import java.util.Arrays;
 import java.util.List;
 
 /**
- * Command handler for /tcatalog with reload and info subcommands
+ * Command handler for /tcatalog with reload, info, stats and export subcommands
  */
 public class TCatalogCommand implements CommandExecutor, TabCompleter {
 
@@ -45,6 +49,12 @@ public class TCatalogCommand implements CommandExecutor, TabCompleter {
             case "info":
                 handleInfo(sender);
                 break;
+            case "stats":
+                handleStats(sender, args.length > 1 ? args[1].toLowerCase() : "");
+                break;
+            case "export":
+                handleExport(sender, args.length > 1 ? args[1] : plugin.getConfigManager().getSettings().exportFormat());
+                break;
             default:
                 sendHelp(sender);
                 break;
@@ -63,7 +73,7 @@ public class TCatalogCommand implements CommandExecutor, TabCompleter {
         }
 
         try {
-            plugin.getConfigManager().reload();
+            plugin.reloadConfiguration();
             sender.sendMessage(Component.text("TownyCatalog configuration reloaded successfully!", NamedTextColor.GREEN));
         } catch (Exception e) {
             sender.sendMessage(Component.text("Failed to reload configuration: " + e.getMessage(), NamedTextColor.RED));
@@ -107,6 +117,78 @@ public class TCatalogCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(Component.text("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━", NamedTextColor.DARK_GREEN));
     }
 
+    /**
+     * Handles the stats subcommand
+     */
+    private void handleStats(CommandSender sender, String action) {
+        if (!sender.hasPermission("townycatalog.admin")) {
+            sender.sendMessage(Component.text("You don't have permission to view catalog stats!", NamedTextColor.RED));
+            return;
+        }
+
+        if (action.equals("reset")) {
+            CatalogMetrics.reset();
+            sender.sendMessage(Component.text("TownyCatalog stats reset.", NamedTextColor.GREEN));
+            return;
+        }
+
+        long minutes = (System.currentTimeMillis() - CatalogMetrics.getStartedAt()) / 60000;
+
+        sender.sendMessage(Component.text("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━", NamedTextColor.DARK_GREEN));
+        sender.sendMessage(Component.text("TownyCatalog Stats", NamedTextColor.GOLD, TextDecoration.BOLD)
+                .append(Component.text(" (last " + minutes + " min)", NamedTextColor.YELLOW)));
+        sender.sendMessage(Component.empty());
+
+        // Latency percentiles
+        sender.sendMessage(Component.text("Latency (p50 / p90 / p99 / max):", NamedTextColor.AQUA, TextDecoration.BOLD));
+        for (CatalogMetrics.Timer timer : CatalogMetrics.Timer.values()) {
+            LatencyHistogram histogram = CatalogMetrics.getHistogram(timer);
+            sender.sendMessage(Component.text("  " + timer.getLabel() + ": ", NamedTextColor.GRAY)
+                    .append(Component.text(String.format("%.2f / %.2f / %.2f / %.2f ms",
+                            CatalogMetrics.toMillis(histogram.percentile(50)),
+                            CatalogMetrics.toMillis(histogram.percentile(90)),
+                            CatalogMetrics.toMillis(histogram.percentile(99)),
+                            CatalogMetrics.toMillis(histogram.max())), NamedTextColor.WHITE))
+                    .append(Component.text(" (" + histogram.count() + ")", NamedTextColor.DARK_GRAY)));
+        }
+
+        sender.sendMessage(Component.empty());
+
+        // Counters
+        sender.sendMessage(Component.text("Counters:", NamedTextColor.AQUA, TextDecoration.BOLD));
+        for (CatalogMetrics.Counter counter : CatalogMetrics.Counter.values()) {
+            sender.sendMessage(Component.text("  " + counter.getLabel() + ": ", NamedTextColor.GRAY)
+                    .append(Component.text(CatalogMetrics.getCount(counter), NamedTextColor.WHITE)));
+        }
+
+        sender.sendMessage(Component.text("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━", NamedTextColor.DARK_GREEN));
+    }
+
+    /**
+     * Handles the export subcommand; the export is written off the main thread and reported back once done
+     */
+    private void handleExport(CommandSender sender, String formatName) {
+        if (!sender.hasPermission("townycatalog.admin")) {
+            sender.sendMessage(Component.text("You don't have permission to export the catalog!", NamedTextColor.RED));
+            return;
+        }
+
+        ExportFormat format = ExportFormat.parse(formatName);
+        if (format == null) {
+            sender.sendMessage(Component.text("Unknown export format: " + formatName + " (use json or csv)", NamedTextColor.RED));
+            return;
+        }
+
+        sender.sendMessage(Component.text("Exporting the catalog to " + format.getFileName() + "...", NamedTextColor.YELLOW));
+        plugin.getExporter().export(format).whenComplete((count, error) -> CatalogScheduler.runForSender(plugin, sender, () -> {
+            if (error != null) {
+                sender.sendMessage(Component.text("Failed to export the catalog, see the console for details", NamedTextColor.RED));
+            } else {
+                sender.sendMessage(Component.text("Exported " + count + " plots to exports/" + format.getFileName(), NamedTextColor.GREEN));
+            }
+        }));
+    }
+
     /**
      * Sends help/usage message
      */
@@ -118,6 +200,10 @@ public class TCatalogCommand implements CommandExecutor, TabCompleter {
                 .append(Component.text(" - Show plugin info and settings", NamedTextColor.GRAY)));
         sender.sendMessage(Component.text("/tcatalog reload", NamedTextColor.YELLOW)
                 .append(Component.text(" - Reload configuration", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("/tcatalog stats [reset]", NamedTextColor.YELLOW)
+                .append(Component.text(" - Show or reset catalog performance stats", NamedTextColor.GRAY)));
+        sender.sendMessage(Component.text("/tcatalog export [json|csv]", NamedTextColor.YELLOW)
+                .append(Component.text(" - Export every plot for sale to a file", NamedTextColor.GRAY)));
         sender.sendMessage(Component.text("/town catalog", NamedTextColor.YELLOW)
                 .append(Component.text(" - Open the plot catalog", NamedTextColor.GRAY)));
         sender.sendMessage(Component.text("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━", NamedTextColor.DARK_GREEN));
@@ -138,11 +224,23 @@ public class TCatalogCommand implements CommandExecutor, TabCompleter {
     @Override
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, String @NotNull [] args) {
         if (args.length == 1) {
-            List<String> completions = new ArrayList<>(Arrays.asList("info", "reload"));
+            List<String> completions = new ArrayList<>(Arrays.asList("info", "reload", "stats", "export"));
             String partial = args[0].toLowerCase();
             completions.removeIf(s -> !s.startsWith(partial));
             return completions;
         }
+        if (args.length == 2 && args[0].equalsIgnoreCase("stats")) {
+            List<String> completions = new ArrayList<>(List.of("reset"));
+            String partial = args[1].toLowerCase();
+            completions.removeIf(s -> !s.startsWith(partial));
+            return completions;
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("export")) {
+            List<String> completions = new ArrayList<>(List.of("json", "csv"));
+            String partial = args[1].toLowerCase();
+            completions.removeIf(s -> !s.startsWith(partial));
+            return completions;
+        }
         return new ArrayList<>();
     }
 }
@@ -0,0 +1,107 @@
+package org.solterra.townyCatalog.economy;
+
+import com.palmergames.bukkit.towny.TownyEconomyHandler;
+import com.palmergames.bukkit.towny.object.Resident;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived snapshots of residents' balances, so a catalog session asks the economy once instead of once per check
+ * Lookups run on the worker pool, as economy backends may do a database round trip per call
+ */
+public class BalanceCache {
+
+    private static final long TTL = TimeUnit.SECONDS.toMillis(30);
+
+    private final Executor executor;
+    private final Map<UUID, Snapshot> balances = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<Double>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+
+    public BalanceCache(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gets a resident's balance, from the snapshot if it is fresh or from the economy on the worker pool otherwise
+     * Concurrent callers share a single lookup
+     *
+     * @param resident The resident
+     * @return Future completing with the resident's balance, or positive infinity if the economy is disabled
+     */
+    public CompletableFuture<Double> get(Resident resident) {
+        if (!TownyEconomyHandler.isActive()) {
+            return CompletableFuture.completedFuture(Double.POSITIVE_INFINITY);
+        }
+
+        UUID uuid = resident.getUUID();
+        Snapshot snapshot = balances.get(uuid);
+        if (snapshot != null && snapshot.isFresh()) {
+            CatalogMetrics.count(CatalogMetrics.Counter.BALANCE_CACHE_HITS);
+            return CompletableFuture.completedFuture(snapshot.balance);
+        }
+
+        CompletableFuture<Double> future = new CompletableFuture<>();
+        CompletableFuture<Double> existing = inFlight.putIfAbsent(uuid, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        CatalogMetrics.count(CatalogMetrics.Counter.BALANCE_CACHE_MISSES);
+        long started = epoch.get();
+        CompletableFuture.supplyAsync(() -> resident.getAccount().getHoldingBalance(), executor)
+                .whenComplete((balance, error) -> {
+                    inFlight.remove(uuid, future);
+                    if (error != null) {
+                        future.completeExceptionally(error);
+                        return;
+                    }
+
+                    // A balance read before an invalidation may predate the change, so it is used but not kept
+                    if (epoch.get() == started) {
+                        balances.put(uuid, new Snapshot(balance));
+                    }
+                    future.complete(balance);
+                });
+        return future;
+    }
+
+    /**
+     * Drops a resident's snapshot so the next lookup asks the economy again, used after their balance changes
+     *
+     * @param uuid The resident's UUID
+     */
+    public void invalidate(UUID uuid) {
+        epoch.incrementAndGet();
+        inFlight.remove(uuid);
+        balances.remove(uuid);
+    }
+
+    /**
+     * Drops every snapshot
+     */
+    public void clear() {
+        balances.clear();
+    }
+
+    private static class Snapshot {
+        private final double balance;
+        private final long takenAt;
+
+        private Snapshot(double balance) {
+            this.balance = balance;
+            this.takenAt = System.currentTimeMillis();
+        }
+
+        private boolean isFresh() {
+            return System.currentTimeMillis() - takenAt < TTL;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package org.solterra.townyCatalog.export;
+
+import com.google.gson.stream.JsonWriter;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+import org.solterra.townyCatalog.index.PlotChangeListener;
+import org.solterra.townyCatalog.index.PlotIndex;
+import org.solterra.townyCatalog.index.PlotKey;
+import org.solterra.townyCatalog.index.PlotStore;
+import org.solterra.townyCatalog.index.TownListing;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+
+/**
+ * Writes the plots for sale to files for tools outside the server, such as web maps and bots
+ * Full exports stream every plot to JSON or CSV one town at a time, so the document is never held in memory
+ * Between full exports, every listing change can be appended to a JSON lines journal that consumers tail instead;
+ * each successful export in the configured format starts a new journal, so the current journal only holds changes made
+ * since that export, and every export records the journal sequence it starts after
+ * Exports and journal writes share a single thread, which keeps journal entries in order with the exports around them
+ */
+public class CatalogExporter implements PlotChangeListener {
+
+    private static final String JOURNAL_FILE = "journal.jsonl";
+
+    private final Plugin plugin;
+    private final Path directory;
+    private final PlotIndex index;
+    private final BooleanSupplier showPlotNames;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TownyCatalog Export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Sequences start from the startup time so they keep increasing across restarts; only touched by the writer
+    private long sequence = System.currentTimeMillis() * 1000;
+    private BufferedWriter journal;
+
+    private volatile boolean journalEnabled;
+    private volatile ExportFormat format = ExportFormat.JSON;
+    private ScheduledTask task;
+
+    public CatalogExporter(Plugin plugin, File directory, PlotIndex index, BooleanSupplier showPlotNames) {
+        this.plugin = plugin;
+        this.directory = directory.toPath();
+        this.index = index;
+        this.showPlotNames = showPlotNames;
+    }
+
+    /**
+     * (Re)starts the scheduled export and the journal, replacing any running schedule
+     *
+     * @param intervalMinutes Minutes between full exports, 0 or less to only export on request
+     * @param format          Format of scheduled exports
+     * @param journalEnabled  true to append listing changes to the journal
+     */
+    public void start(int intervalMinutes, ExportFormat format, boolean journalEnabled) {
+        stop();
+        this.format = format;
+        this.journalEnabled = journalEnabled;
+        if (intervalMinutes <= 0) {
+            return;
+        }
+
+        task = CatalogScheduler.runAsyncTimer(plugin, () -> export(this.format), intervalMinutes);
+    }
+
+    /**
+     * Stops the scheduled export
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Stops the scheduled export and closes the journal once queued writes have finished
+     */
+    public void shutdown() {
+        stop();
+        writer.execute(this::closeJournal);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes every plot for sale to the exports folder off the main thread, replacing the previous export of that format
+     * The journal is only rotated once an export in the configured format has been written, so a failed or on-demand
+     * export never drops changes that consumers of the scheduled export still need
+     *
+     * @param format The file format
+     * @return Future completing with the number of exported plots, or exceptionally if the file could not be written
+     */
+    public CompletableFuture<Integer> export(ExportFormat format) {
+        return CompletableFuture.supplyAsync(() -> {
+            long startNanos = System.nanoTime();
+            // Journal entries are written on this thread too, so none can land while the export is written
+            long journalSequence = sequence;
+
+            Path target = directory.resolve(format.getFileName());
+            Path temp = directory.resolve(format.getFileName() + ".tmp");
+            try {
+                Files.createDirectories(directory);
+                int count;
+                try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    count = format == ExportFormat.JSON ? writeJson(out, journalSequence) : writeCsv(out, journalSequence);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                if (format == this.format) {
+                    rotateJournal();
+                }
+                CatalogMetrics.time(CatalogMetrics.Timer.EXPORT, startNanos);
+                return count;
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to export the catalog to " + target.getFileName(), e);
+                throw new UncheckedIOException(e);
+            }
+        }, writer);
+    }
+
+    @Override
+    public void plotListed(long key, UUID townUUID) {
+        if (!journalEnabled) {
+            return;
+        }
+
+        // Copied now on the main thread, as the store may change again before the entry is written
+        PlotStore store = index.getStore();
+        TownListing listing = index.getListing(townUUID);
+        ExportedPlot plot = ExportedPlot.read(store, key, townUUID, store.getPriceCents(key) / 100.0,
+                store.isResidential(key), listing != null ? listing.getListedAt(key) : 0, showPlotNames.getAsBoolean());
+        if (plot != null) {
+            long time = System.currentTimeMillis();
+            writer.execute(() -> appendJournal("listed", time, out -> writePlot(out, plot)));
+        }
+    }
+
+    @Override
+    public void plotUnlisted(long key, UUID townUUID) {
+        if (!journalEnabled) {
+            return;
+        }
+
+        String worldName = index.getStore().worldName(key);
+        long time = System.currentTimeMillis();
+        writer.execute(() -> appendJournal("unlisted", time, out -> {
+            out.name("world").value(worldName);
+            out.name("x").value(PlotKey.x(key));
+            out.name("z").value(PlotKey.z(key));
+            out.name("town").value(townUUID.toString());
+        }));
+    }
+
+    @Override
+    public void indexRebuilt() {
+        if (!journalEnabled) {
+            return;
+        }
+
+        // Individual changes are unknown, so consumers are told to reload and given a fresh export to reload from
+        long time = System.currentTimeMillis();
+        writer.execute(() -> appendJournal("rebuilt", time, out -> {
+        }));
+        export(format);
+    }
+
+    /**
+     * Streams the export as a single JSON object, with the journal sequence it starts after
+     */
+    private int writeJson(Writer out, long journalSequence) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("generatedAt").value(System.currentTimeMillis());
+        json.name("journalSequence").value(journalSequence);
+        json.name("plots").beginArray();
+        int count = forEachPlot(plot -> {
+            json.beginObject();
+            writePlot(json, plot);
+            json.endObject();
+        });
+        json.endArray();
+        json.endObject();
+        json.flush();
+        return count;
+    }
+
+    /**
+     * Streams the export as CSV with a header row, after a comment line holding the journal sequence it starts after
+     */
+    private int writeCsv(Writer out, long journalSequence) throws IOException {
+        out.write("# journalSequence=" + journalSequence + "\n");
+        out.write("world,x,z,town_uuid,town,plot_name,type,price,residential,listed_at\n");
+        return forEachPlot(plot -> {
+            out.write(csv(plot.getWorldName()));
+            out.write(',');
+            out.write(Integer.toString(plot.getX()));
+            out.write(',');
+            out.write(Integer.toString(plot.getZ()));
+            out.write(',');
+            out.write(plot.getTownUUID().toString());
+            out.write(',');
+            out.write(csv(plot.getTownName()));
+            out.write(',');
+            out.write(csv(plot.getPlotName()));
+            out.write(',');
+            out.write(csv(plot.getPlotType()));
+            out.write(',');
+            out.write(BigDecimal.valueOf(plot.getPrice()).toPlainString());
+            out.write(',');
+            out.write(Boolean.toString(plot.isResidential()));
+            out.write(',');
+            out.write(Long.toString(plot.getListedAt()));
+            out.write('\n');
+        });
+    }
+
+    /**
+     * Walks every plot for sale town by town, holding only one town's listing order at a time
+     */
+    private int forEachPlot(PlotWriter plotWriter) throws IOException {
+        PlotStore store = index.getStore();
+        boolean withNames = showPlotNames.getAsBoolean();
+        int count = 0;
+        for (UUID townUUID : index.getTownIds()) {
+            TownListing listing = index.getListing(townUUID);
+            if (listing == null) {
+                continue;
+            }
+
+            TownListing.ListingOrder order = listing.getListingOrder();
+            for (int i = 0; i < order.size(); i++) {
+                ExportedPlot plot = ExportedPlot.read(store, order.getKeys()[i], townUUID, order.getPrices()[i],
+                        order.getResidential()[i], order.getListedAt()[i], withNames);
+                if (plot != null) {
+                    plotWriter.write(plot);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes a plot's fields into an open JSON object, shared with the HTTP endpoint so both agree on the format
+     */
+    static void writePlot(JsonWriter out, ExportedPlot plot) throws IOException {
+        out.name("world").value(plot.getWorldName());
+        out.name("x").value(plot.getX());
+        out.name("z").value(plot.getZ());
+        out.name("town").value(plot.getTownUUID().toString());
+        out.name("townName").value(plot.getTownName());
+        out.name("plotName").value(plot.getPlotName());
+        out.name("type").value(plot.getPlotType());
+        out.name("price").value(plot.getPrice());
+        out.name("residential").value(plot.isResidential());
+        out.name("listedAt").value(plot.getListedAt());
+    }
+
+    /**
+     * Quotes a CSV field if it holds a separator, quote or line break
+     */
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Appends one journal line and flushes it, so tailing consumers see it straight away
+     * Runs on the writer thread
+     */
+    private void appendJournal(String operation, long time, JournalFields fields) {
+        StringWriter line = new StringWriter();
+        try {
+            JsonWriter json = new JsonWriter(line);
+            json.beginObject();
+            json.name("seq").value(++sequence);
+            json.name("time").value(time);
+            json.name("op").value(operation);
+            fields.write(json);
+            json.endObject();
+            json.close();
+
+            if (journal == null) {
+                Files.createDirectories(directory);
+                journal = Files.newBufferedWriter(directory.resolve(JOURNAL_FILE), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            journal.write(line.toString());
+            journal.write('\n');
+            journal.flush();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to append to the export journal", e);
+        }
+    }
+
+    /**
+     * Starts a new journal, keeping the previous one as a single backup
+     * Runs on the writer thread
+     */
+    private void rotateJournal() {
+        closeJournal();
+        Path current = directory.resolve(JOURNAL_FILE);
+        try {
+            if (Files.exists(current)) {
+                Files.move(current, directory.resolve(JOURNAL_FILE + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to rotate the export journal", e);
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to close the export journal", e);
+        }
+        journal = null;
+    }
+
+    /**
+     * Writes one plot of a full export
+     */
+    @FunctionalInterface
+    private interface PlotWriter {
+        void write(ExportedPlot plot) throws IOException;
+    }
+
+    /**
+     * Writes the fields of a journal entry after its sequence, time and operation
+     */
+    @FunctionalInterface
+    private interface JournalFields {
+        void write(JsonWriter out) throws IOException;
+    }
+}
@@ -0,0 +1,402 @@
+package org.solterra.townyCatalog.export;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.plugin.Plugin;
+import org.solterra.townyCatalog.api.CatalogQuery;
+import org.solterra.townyCatalog.api.TownyCatalogAPI;
+import org.solterra.townyCatalog.index.PlotIndex;
+import org.solterra.townyCatalog.index.PlotStore;
+import org.solterra.townyCatalog.index.TownListing;
+import org.solterra.townyCatalog.index.TownRanking;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.model.CatalogPage;
+import org.solterra.townyCatalog.model.PlotInfo;
+import org.solterra.townyCatalog.model.PriceStats;
+import org.solterra.townyCatalog.util.CatalogSettings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Read-only HTTP endpoint serving catalog pages and town summaries as JSON, for tools that would otherwise poll
+ * the server through commands or the export files
+ * Requests are answered on virtual threads from the index alone and never wait for the main thread; the configured town
+ * open and public filters use the flags kept in the index
+ * Every response carries an ETag made from the index, ranking and settings versions; a poll sending it back in
+ * If-None-Match is answered with 304 before anything is read, and rendered bodies are shared between requests for the
+ * same URL until any of those versions moves
+ */
+public class CatalogHttpServer {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_CACHED_BODIES = 256;
+    // The largest world border the game allows; the live border can't be read safely from request threads
+    private static final double MAX_COORDINATE = 29_999_984;
+
+    private final Plugin plugin;
+    private final PlotIndex index;
+    private final Supplier<CatalogSettings> settings;
+
+    private volatile RenderedBodies rendered = new RenderedBodies("");
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public CatalogHttpServer(Plugin plugin, PlotIndex index, Supplier<CatalogSettings> settings) {
+        this.plugin = plugin;
+        this.index = index;
+        this.settings = settings;
+    }
+
+    /**
+     * (Re)starts the endpoint, replacing any running server
+     *
+     * @param enabled     false to only stop the running server
+     * @param bindAddress Address to listen on, 127.0.0.1 to only accept local connections
+     * @param port        Port to listen on
+     */
+    public void start(boolean enabled, String bindAddress, int port) {
+        stop();
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to start the catalog HTTP endpoint on " + bindAddress + ":" + port, e);
+            server = null;
+            return;
+        }
+
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("TownyCatalog HTTP #", 1).factory());
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        plugin.getLogger().info("Catalog HTTP endpoint listening on " + bindAddress + ":" + port);
+    }
+
+    /**
+     * Stops the endpoint, closing open connections straight away
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            CatalogMetrics.count(CatalogMetrics.Counter.HTTP_REQUESTS);
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                sendError(exchange, 405, "Only GET and HEAD are supported");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            if (!path.equals("/plots") && !path.equals("/towns")) {
+                sendError(exchange, 404, "Unknown endpoint, use /plots or /towns");
+                return;
+            }
+
+            // Read before rendering, so a change made while rendering gives the next poll a new tag
+            String etag = currentETag();
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", etag);
+            headers.set("Cache-Control", "no-cache");
+            if (matchesETag(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                CatalogMetrics.count(CatalogMetrics.Counter.HTTP_NOT_MODIFIED);
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            byte[] body;
+            try {
+                body = render(etag, path, exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException e) {
+                headers.remove("ETag");
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            send(exchange, 200, body);
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to answer a catalog HTTP request", e);
+        }
+    }
+
+    /**
+     * Gets a response body from the bodies rendered at this tag, rendering it on a miss
+     * The URL is the cache key, so only the order of query parameters decides whether two requests share a body
+     */
+    private byte[] render(String etag, String path, String rawQuery) throws IOException {
+        RenderedBodies bodies = rendered;
+        if (!bodies.etag.equals(etag)) {
+            bodies = new RenderedBodies(etag);
+            rendered = bodies;
+        }
+
+        String url = rawQuery != null ? path + "?" + rawQuery : path;
+        byte[] body = bodies.bodies.get(url);
+        if (body != null) {
+            return body;
+        }
+
+        long startNanos = System.nanoTime();
+        Map<String, String> params = parseQuery(rawQuery);
+        CatalogSettings current = settings.get();
+        body = (path.equals("/plots") ? renderPlots(params, current) : renderTowns(params, current))
+                .getBytes(StandardCharsets.UTF_8);
+        if (bodies.bodies.size() < MAX_CACHED_BODIES) {
+            bodies.bodies.put(url, body);
+        }
+        CatalogMetrics.time(CatalogMetrics.Timer.HTTP_RENDER, startNanos);
+        return body;
+    }
+
+    /**
+     * Renders one page of a catalog query
+     */
+    private String renderPlots(Map<String, String> params, CatalogSettings current) throws IOException {
+        CatalogQuery.Builder builder = CatalogQuery.builder()
+                .requireTownOpen(current.requireTownOpen())
+                .requireTownPublic(current.requireTownPublic());
+        String towns = params.get("town");
+        if (towns != null) {
+            for (String town : towns.split(",")) {
+                builder.town(parseUUID(town.trim()));
+            }
+        }
+
+        builder.minPrice(parseDouble(params, "min", 0));
+        builder.maxPrice(parseDouble(params, "max", Double.POSITIVE_INFINITY));
+        builder.residentialOnly(Boolean.parseBoolean(params.get("residential")));
+
+        String world = params.get("world");
+        if (world != null) {
+            builder.near(world, parseCoordinate(params, "x"), parseCoordinate(params, "z"));
+            if (params.containsKey("radius")) {
+                double radius = parseDouble(params, "radius", 0);
+                if (!Double.isFinite(radius) || radius < 0) {
+                    throw new IllegalArgumentException("radius must be a finite, non-negative number: " + params.get("radius"));
+                }
+                builder.maxDistance(radius);
+            }
+        }
+
+        CatalogQuery.SortKey sortKey = parseEnum(CatalogQuery.SortKey.class, params.getOrDefault("sort", "price"), "sort");
+        String order = params.getOrDefault("order", sortKey == CatalogQuery.SortKey.LISTED ? "desc" : "asc");
+        if (!order.equalsIgnoreCase("asc") && !order.equalsIgnoreCase("desc")) {
+            throw new IllegalArgumentException("order must be asc or desc: " + order);
+        }
+        builder.sortBy(sortKey, order.equalsIgnoreCase("asc"));
+
+        int limit = (int) parseDouble(params, "limit", DEFAULT_LIMIT);
+        builder.offset((int) parseDouble(params, "offset", 0));
+        builder.limit(Math.min(limit, MAX_LIMIT));
+        CatalogPage page = TownyCatalogAPI.query(builder.build());
+
+        PlotStore store = index.getStore();
+        boolean withNames = current.showCustomPlotNames();
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("total").value(page.getTotal());
+        json.name("offset").value(page.getOffset());
+        json.name("limit").value(page.getLimit());
+        json.name("plots").beginArray();
+        for (PlotInfo info : page.getPlots()) {
+            long key = info.getKey();
+            UUID townUUID = store.getTownUUID(key);
+            TownListing listing = townUUID != null ? index.getListing(townUUID) : null;
+            ExportedPlot plot = listing != null ? ExportedPlot.read(store, key, townUUID,
+                    store.getPriceCents(key) / 100.0, store.isResidential(key), listing.getListedAt(key), withNames) : null;
+            // Plots unlisted since the page was selected are left out
+            if (plot != null) {
+                json.beginObject();
+                CatalogExporter.writePlot(json, plot);
+                json.endObject();
+            }
+        }
+        json.endArray();
+        json.endObject();
+        json.close();
+        return out.toString();
+    }
+
+    /**
+     * Renders every town with plots for sale that passes the configured open and public filters, in one of the town orders
+     */
+    private String renderTowns(Map<String, String> params, CatalogSettings current) throws IOException {
+        TownRanking.Key key = parseEnum(TownRanking.Key.class, params.getOrDefault("sort", "name"), "sort");
+        TownRanking ranking = index.getRanking();
+
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("towns").beginArray();
+        for (UUID townUUID : ranking.getOrder(key)) {
+            TownListing listing = index.getListing(townUUID);
+            String name = ranking.getName(townUUID);
+            if (listing == null || name == null || (current.requireTownOpen() && !ranking.isOpen(townUUID))
+                    || (current.requireTownPublic() && !ranking.isPublic(townUUID))) {
+                continue;
+            }
+
+            PriceStats stats = listing.getStats(false, Double.POSITIVE_INFINITY);
+            json.beginObject();
+            json.name("town").value(townUUID.toString());
+            json.name("name").value(name);
+            json.name("plots").value(stats.getCount());
+            json.name("residentialPlots").value(listing.getStats(true, Double.POSITIVE_INFINITY).getCount());
+            json.name("minPrice").value(stats.getMinPrice());
+            json.name("maxPrice").value(stats.getMaxPrice());
+            json.name("newestListing").value(listing.getNewestListing());
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.close();
+        return out.toString();
+    }
+
+    private String currentETag() {
+        return "\"" + index.getVersion() + "-" + index.getRanking().getVersion() + "-" + settings.get().version() + "\"";
+    }
+
+    /**
+     * Checks an If-None-Match header, which may list several tags, mark them weak or be a wildcard
+     */
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static double parseDouble(Map<String, String> params, String name, double fallback) {
+        String value = params.get(name);
+        if (value == null) {
+            return fallback;
+        }
+
+        try {
+            double parsed = Double.parseDouble(value);
+            if (Double.isNaN(parsed)) {
+                throw new NumberFormatException();
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number: " + value);
+        }
+    }
+
+    /**
+     * Parses a block coordinate, which must lie inside the largest possible world border
+     */
+    private static double parseCoordinate(Map<String, String> params, String name) {
+        double coordinate = parseDouble(params, name, 0);
+        if (!Double.isFinite(coordinate) || Math.abs(coordinate) > MAX_COORDINATE) {
+            throw new IllegalArgumentException(name + " must be within the world border: " + params.get(name));
+        }
+        return coordinate;
+    }
+
+    private static UUID parseUUID(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("town must be a town UUID: " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown " + name + ": " + value);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("error").value(message);
+        json.endObject();
+        json.close();
+        send(exchange, status, out.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Response bodies rendered while the index, ranking and settings were at one ETag; replaced as a whole when it moves
+     */
+    private static final class RenderedBodies {
+        private final String etag;
+        private final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+
+        private RenderedBodies(String etag) {
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.solterra.townyCatalog.export;
+
+import java.util.Locale;
+
+/**
+ * File formats a full catalog export can be written in
+ */
+public enum ExportFormat {
+    JSON("json"),
+    CSV("csv");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return Name of the export file in the exports folder
+     */
+    public String getFileName() {
+        return "catalog." + extension;
+    }
+
+    /**
+     * @param name The format name, ignoring case
+     * @return The format, or null if there is none with that name
+     */
+    public static ExportFormat parse(String name) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equals(name.toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+package org.solterra.townyCatalog.export;
+
+import org.solterra.townyCatalog.index.PlotKey;
+import org.solterra.townyCatalog.index.PlotStore;
+import org.solterra.townyCatalog.model.PlotInfo;
+
+import java.util.UUID;
+
+/**
+ * One plot for sale as it is written to exports and the journal, copied out of the store so it can be written later
+ */
+class ExportedPlot {
+    private final String worldName;
+    private final int x;
+    private final int z;
+    private final UUID townUUID;
+    private final String townName;
+    private final String plotName;
+    private final String plotType;
+    private final double price;
+    private final boolean residential;
+    private final long listedAt;
+
+    private ExportedPlot(String worldName, int x, int z, UUID townUUID, String townName, String plotName,
+                         String plotType, double price, boolean residential, long listedAt) {
+        this.worldName = worldName;
+        this.x = x;
+        this.z = z;
+        this.townUUID = townUUID;
+        this.townName = townName;
+        this.plotName = plotName;
+        this.plotType = plotType;
+        this.price = price;
+        this.residential = residential;
+        this.listedAt = listedAt;
+    }
+
+    /**
+     * Copies a plot out of the store
+     *
+     * @param store       The store holding the plot
+     * @param key         The plot's packed key
+     * @param townUUID    The town selling the plot
+     * @param price       The asking price
+     * @param residential true if the plot is a residential plot
+     * @param listedAt    When the plot was listed, in epoch milliseconds
+     * @param withName    false to leave out the plot's custom name
+     * @return The plot, or null if it is no longer in the store
+     */
+    static ExportedPlot read(PlotStore store, long key, UUID townUUID, double price, boolean residential,
+                             long listedAt, boolean withName) {
+        PlotInfo info = store.describe(key, false);
+        if (info == null) {
+            return null;
+        }
+
+        String plotName = withName ? store.getPlotName(key) : "";
+        return new ExportedPlot(info.getWorldName(), PlotKey.x(key), PlotKey.z(key), townUUID, info.getTownName(),
+                plotName != null ? plotName : "", info.getPlotTypeName(), price, residential, listedAt);
+    }
+
+    String getWorldName() {
+        return worldName;
+    }
+
+    int getX() {
+        return x;
+    }
+
+    int getZ() {
+        return z;
+    }
+
+    UUID getTownUUID() {
+        return townUUID;
+    }
+
+    String getTownName() {
+        return townName;
+    }
+
+    /**
+     * @return The custom plot name, empty if none or if names are hidden
+     */
+    String getPlotName() {
+        return plotName;
+    }
+
+    String getPlotType() {
+        return plotType;
+    }
+
+    double getPrice() {
+        return price;
+    }
+
+    boolean isResidential() {
+        return residential;
+    }
+
+    long getListedAt() {
+        return listedAt;
+    }
+}
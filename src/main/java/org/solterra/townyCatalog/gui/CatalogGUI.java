@@ -1,25 +1,37 @@
 package org.solterra.townyCatalog.gui;
 
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
 import com.palmergames.bukkit.towny.TownyAPI;
 import com.palmergames.bukkit.towny.object.Resident;
 import com.palmergames.bukkit.towny.object.Town;
-import com.palmergames.bukkit.towny.object.TownBlock;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.SkullMeta;
+import org.solterra.townyCatalog.TownyCatalog;
+import org.solterra.townyCatalog.api.CatalogFilter;
+import org.solterra.townyCatalog.api.CatalogQuery;
 import org.solterra.townyCatalog.api.TownyCatalogAPI;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.model.CatalogPage;
 import org.solterra.townyCatalog.model.PlotInfo;
-import org.solterra.townyCatalog.util.GUIUtils;
+import org.solterra.townyCatalog.profile.HeadProfileCache;
+import org.solterra.townyCatalog.profile.HeadTextures;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+import org.solterra.townyCatalog.util.GUITemplates;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Manages the Catalog GUI display and interaction
@@ -28,13 +40,14 @@ public class CatalogGUI {
 
     private static final int INVENTORY_SIZE = 54;
     private static final int PLOTS_PER_PAGE = 45;
-    private static final int BACK_BUTTON_SLOT = 45;
-    private static final int TOWN_INFO_SLOT = 46;
-    private static final int TAX_INFO_SLOT = 47;
-    private static final int PREVIOUS_PAGE_SLOT = 48;
-    private static final int INFO_SLOT = 49;
-    private static final int NEXT_PAGE_SLOT = 50;
-    private static final int MAYOR_HEAD_SLOT = 53;
+    public static final int BACK_BUTTON_SLOT = 45;
+    public static final int TOWN_INFO_SLOT = 46;
+    public static final int TAX_INFO_SLOT = 47;
+    public static final int PREVIOUS_PAGE_SLOT = 48;
+    public static final int INFO_SLOT = 49;
+    public static final int NEXT_PAGE_SLOT = 50;
+    public static final int SORT_SLOT = 51;
+    public static final int MAYOR_HEAD_SLOT = 53;
 
     /**
      * Opens the catalog GUI for a player showing plots from a specific town
@@ -43,41 +56,121 @@ public class CatalogGUI {
      * @param town   The town to show plots from
      */
     public static void openCatalog(Player player, Town town) {
+        long startNanos = System.nanoTime();
         Resident resident = TownyAPI.getInstance().getResident(player);
         if (resident == null) {
             player.sendMessage(Component.text("You must be a Towny resident to use the catalog!", NamedTextColor.RED));
             return;
         }
 
-        // Get purchasable plots for the player from this town
-        List<TownBlock> plots = TownyCatalogAPI.getAllPurchasablePlotsIn(town, resident);
+        // The balance snapshot is fetched off the main thread, usually it is already cached
+        OpenPipeline.await(player, CatalogFilter.fetchBalance(resident),
+                balance -> showCatalog(player, town, CatalogFilter.capture(balance), startNanos));
+    }
 
-        if (plots.isEmpty()) {
-            player.sendMessage(Component.text("No plots available for purchase in this town!", NamedTextColor.YELLOW));
-            return;
-        }
+    /**
+     * Captures the town and opens its catalog once the filters are known
+     *
+     * @param player The player to show the catalog to
+     * @param town   The town to show plots from
+     * @param filter     The captured filters
+     * @param startNanos When the open was requested, for latency metrics
+     */
+    private static void showCatalog(Player player, Town town, CatalogFilter filter, long startNanos) {
+        // Only the first page is read from the index, on the worker pool
+        CatalogQuery firstPage = pageQuery(player, town, filter, PlotSortMode.PRICE_ASCENDING, 0);
+        OpenPipeline.submit(player, () -> TownyCatalogAPI.query(firstPage), page -> {
+            if (page.getTotal() == 0) {
+                player.sendMessage(Component.text("No plots available for purchase in this town!", NamedTextColor.YELLOW));
+                return;
+            }
 
-        // Sort plots by price (lowest to highest)
-        plots = TownyCatalogAPI.sortPlotsByPrice(plots, true);
+            // Create holder first
+            CatalogInventoryHolder holder = new CatalogInventoryHolder(player, filter, town);
 
-        // Create holder first
-        CatalogInventoryHolder holder = new CatalogInventoryHolder(player, plots, town);
+            // Create inventory with custom holder
+            Inventory inventory = Bukkit.createInventory(
+                    holder,
+                    INVENTORY_SIZE,
+                    Component.text(town.getName() + " - Plots", NamedTextColor.DARK_GREEN, TextDecoration.BOLD)
+            );
 
-        // Create inventory with custom holder
-        Inventory inventory = Bukkit.createInventory(
-                holder,
-                INVENTORY_SIZE,
-                Component.text(town.getName() + " - Plots", NamedTextColor.DARK_GREEN, TextDecoration.BOLD)
-        );
+            // Link inventory to holder
+            holder.setInventory(inventory);
 
-        // Link inventory to holder
-        holder.setInventory(inventory);
+            // Render the first page
+            renderPage(holder, 0, page);
+
+            // Open the inventory and keep it updated while it stays open
+            player.openInventory(inventory);
+            ViewManager.register(player, holder);
+            CatalogMetrics.time(CatalogMetrics.Timer.OPEN_CATALOG, startNanos);
+            CatalogMetrics.count(CatalogMetrics.Counter.OPENS);
+        });
+    }
+
+    /**
+     * Builds the query for one page of a town's catalog
+     *
+     * @param player   The player viewing the catalog, distances are measured from their location
+     * @param town     The town to show plots from
+     * @param filter   The captured filters
+     * @param sortMode The order to show the plots in
+     * @param page     The page number (0-indexed)
+     * @return Query for the page's plots
+     */
+    private static CatalogQuery pageQuery(Player player, Town town, CatalogFilter filter, PlotSortMode sortMode, int page) {
+        CatalogQuery.Builder builder = CatalogQuery.builder()
+                .town(town)
+                .filter(filter)
+                .sortBy(sortMode.getSortKey(), sortMode.isAscending())
+                .page(page, PLOTS_PER_PAGE);
+        if (sortMode.getSortKey() == CatalogQuery.SortKey.DISTANCE) {
+            builder.near(player.getLocation());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Runs the query for one page of an open catalog
+     */
+    private static CatalogPage queryPage(CatalogInventoryHolder holder, Player player, int page) {
+        return TownyCatalogAPI.query(pageQuery(player, holder.getSelectedTown(), holder.getFilter(),
+                holder.getSortMode(), page));
+    }
 
-        // Populate the first page
+    /**
+     * Switches an open catalog to the next sort order, starting again from the first page
+     * Must be called on the main thread
+     *
+     * @param holder The inventory holder of the open catalog
+     */
+    public static void cycleSortMode(CatalogInventoryHolder holder) {
+        holder.setSortMode(holder.getSortMode().next());
         populatePage(holder, 0);
+    }
+
+    /**
+     * Re-reads the current page and patches the open catalog, keeping the player on their page if it still exists
+     * Must be called on the main thread
+     *
+     * @param holder The inventory holder of the open catalog
+     */
+    public static void refresh(CatalogInventoryHolder holder) {
+        Player player = Bukkit.getPlayer(holder.getPlayerUUID());
+        if (player == null) {
+            return;
+        }
 
-        // Open the inventory
-        player.openInventory(inventory);
+        int page = holder.getCurrentPage();
+        CatalogPage contents = queryPage(holder, player, page);
+
+        // The page no longer exists, fall back to the new last page
+        if (contents.getPlots().isEmpty() && page > 0) {
+            page = Math.max(0, (contents.getTotal() - 1) / PLOTS_PER_PAGE);
+            contents = queryPage(holder, player, page);
+        }
+        renderPage(holder, page, contents);
     }
 
     /**
@@ -87,62 +180,78 @@ public class CatalogGUI {
      * @param page   The page number (0-indexed)
      */
     public static void populatePage(CatalogInventoryHolder holder, int page) {
-        Inventory inventory = holder.getInventory();
-        List<TownBlock> allPlots = holder.getAllPlots();
-
-        // Clear the inventory
-        inventory.clear();
-
-        // Calculate start and end indices
-        int startIndex = page * PLOTS_PER_PAGE;
-        int endIndex = Math.min(startIndex + PLOTS_PER_PAGE, allPlots.size());
-
-        // Add plot items (fill slots 0-44)
-        for (int i = startIndex; i < endIndex; i++) {
-            TownBlock plot = allPlots.get(i);
-            PlotInfo plotInfo = TownyCatalogAPI.getPlotDisplayInfo(plot);
+        Player player = Bukkit.getPlayer(holder.getPlayerUUID());
+        if (player != null) {
+            renderPage(holder, page, queryPage(holder, player, page));
+        }
+    }
 
-            if (plotInfo != null) {
-                ItemStack plotItem = createPlotItem(plotInfo);
-                inventory.setItem(i - startIndex, plotItem);
-            }
+    /**
+     * Renders a page of query results into the catalog
+     *
+     * @param holder   The inventory holder
+     * @param page     The page number (0-indexed)
+     * @param contents The page's query results
+     */
+    private static void renderPage(CatalogInventoryHolder holder, int page, CatalogPage contents) {
+        long startNanos = System.nanoTime();
+        SlotRenderer renderer = holder.getRenderer();
+        ItemStack[] slots = new ItemStack[INVENTORY_SIZE];
+        holder.setContents(page, contents);
+
+        // Add plot items (fill slots 0-44), with distances when sorted by them
+        Player viewer = Bukkit.getPlayer(holder.getPlayerUUID());
+        Location origin = holder.getSortMode() == PlotSortMode.NEAREST && viewer != null ? viewer.getLocation() : null;
+        List<PlotInfo> plots = contents.getPlots();
+        for (int i = 0; i < plots.size(); i++) {
+            slots[i] = createPlotItem(plots.get(i), origin);
         }
 
-        // Add bottom row items
-        inventory.setItem(BACK_BUTTON_SLOT, createBackButton());
-        inventory.setItem(TOWN_INFO_SLOT, createTownInfoItem(holder.getSelectedTown()));
-        inventory.setItem(TAX_INFO_SLOT, createTaxInfoItem(holder.getSelectedTown()));
-        inventory.setItem(MAYOR_HEAD_SLOT, createMayorHead(holder.getSelectedTown()));
+        // Town controls don't depend on the page, so they are only rebuilt when the town's version moves
+        // Rebuilt items that come out equal to the shown ones are not written again
+        Town town = holder.getSelectedTown();
+        long townVersion = TownyCatalog.getInstance().getPlotIndex().getTownVersion(town.getUUID());
+        boolean rebuild = townVersion != holder.getHeaderVersion();
+        holder.setHeaderVersion(townVersion);
+        slots[BACK_BUTTON_SLOT] = GUITemplates.backButton();
+        slots[TOWN_INFO_SLOT] = reuseOrCreate(renderer, TOWN_INFO_SLOT, rebuild, () -> createTownInfoItem(town));
+        slots[TAX_INFO_SLOT] = reuseOrCreate(renderer, TAX_INFO_SLOT, rebuild, () -> createTaxInfoItem(town));
+        slots[MAYOR_HEAD_SLOT] = reuseOrCreate(renderer, MAYOR_HEAD_SLOT, rebuild, () -> createMayorHead(holder));
+
         // Add navigation items
         if (holder.hasPreviousPage()) {
-            inventory.setItem(PREVIOUS_PAGE_SLOT, GUIUtils.createNavigationItem(
-                    Material.ARROW,
-                    "Previous Page",
-                    "Click to go to page " + page
-            ));
+            slots[PREVIOUS_PAGE_SLOT] = GUITemplates.previousPage(page);
         }
 
         // Add info item
-        inventory.setItem(INFO_SLOT, createInfoItem(page + 1, holder.getTotalPages(), allPlots.size()));
+        slots[INFO_SLOT] = GUITemplates.catalogInfo(page + 1, holder.getTotalPages(), contents.getTotal());
 
         if (holder.hasNextPage()) {
-            inventory.setItem(NEXT_PAGE_SLOT, GUIUtils.createNavigationItem(
-                    Material.ARROW,
-                    "Next Page",
-                    "Click to go to page " + (page + 2)
-            ));
+            slots[NEXT_PAGE_SLOT] = GUITemplates.nextPage(page + 2);
         }
+        slots[SORT_SLOT] = GUITemplates.sortButton(holder.getSortMode().getLabel());
+
+        // Only slots whose contents changed are written
+        CatalogMetrics.count(CatalogMetrics.Counter.SLOTS_WRITTEN, renderer.render(slots));
+        CatalogMetrics.time(CatalogMetrics.Timer.POPULATE_PAGE, startNanos);
+    }
 
-        holder.setCurrentPage(page);
+    /**
+     * Gets the item already shown in a slot, or builds it if the slot is empty or its contents may have changed
+     */
+    private static ItemStack reuseOrCreate(SlotRenderer renderer, int slot, boolean rebuild, Supplier<ItemStack> factory) {
+        ItemStack shown = rebuild ? null : renderer.getShown(slot);
+        return shown != null ? shown : factory.get();
     }
 
     /**
      * Creates an ItemStack representing a plot
      *
      * @param plotInfo The plot information
+     * @param origin   Location to show the plot's distance from, or null to leave it out
      * @return ItemStack with plot details
      */
-    private static ItemStack createPlotItem(PlotInfo plotInfo) {
+    private static ItemStack createPlotItem(PlotInfo plotInfo, Location origin) {
         ItemStack item = new ItemStack(Material.GRASS_BLOCK);
         ItemMeta meta = item.getItemMeta();
 
@@ -157,11 +266,18 @@ public class CatalogGUI {
                 .append(Component.text("$" + plotInfo.getFormattedPrice(), NamedTextColor.GOLD))
                 .decoration(TextDecoration.ITALIC, false));
         lore.add(Component.text("Type: ", NamedTextColor.GRAY)
-                .append(Component.text(plotInfo.getPlotType().toString(), NamedTextColor.YELLOW))
+                .append(Component.text(plotInfo.getPlotTypeName(), NamedTextColor.YELLOW))
                 .decoration(TextDecoration.ITALIC, false));
         lore.add(Component.text("Location: ", NamedTextColor.GRAY)
                 .append(Component.text(plotInfo.getCoordinates(), NamedTextColor.AQUA))
                 .decoration(TextDecoration.ITALIC, false));
+        if (origin != null) {
+            double distance = plotInfo.distanceTo(origin);
+            lore.add(Component.text("Distance: ", NamedTextColor.GRAY)
+                    .append(Component.text(Double.isInfinite(distance) ? "Other world" : Math.round(distance) + " blocks",
+                            NamedTextColor.AQUA))
+                    .decoration(TextDecoration.ITALIC, false));
+        }
 //        lore.add(Component.text("World: ", NamedTextColor.GRAY)
 //                .append(Component.text(plotInfo.getWorldName(), NamedTextColor.WHITE))
 //                .decoration(TextDecoration.ITALIC, false));
@@ -174,45 +290,15 @@ public class CatalogGUI {
         return item;
     }
 
-    /**
-     * Creates the info item showing current page and plot count
-     *
-     * @param currentPage Current page number (1-indexed for display)
-     * @param totalPages  Total number of pages
-     * @param totalPlots  Total number of plots
-     * @return ItemStack info item
-     */
-    private static ItemStack createInfoItem(int currentPage, int totalPages, int totalPlots) {
-        ItemStack item = new ItemStack(Material.BOOK);
-        ItemMeta meta = item.getItemMeta();
-
-        meta.displayName(Component.text("Catalog Info", NamedTextColor.AQUA)
-                .decoration(TextDecoration.ITALIC, false));
-
-        List<Component> lore = new ArrayList<>();
-        lore.add(Component.empty());
-        lore.add(Component.text("Page: ", NamedTextColor.GRAY)
-                .append(Component.text(currentPage + "/" + totalPages, NamedTextColor.WHITE))
-                .decoration(TextDecoration.ITALIC, false));
-        lore.add(Component.text("Total Plots: ", NamedTextColor.GRAY)
-                .append(Component.text(String.valueOf(totalPlots), NamedTextColor.WHITE))
-                .decoration(TextDecoration.ITALIC, false));
-        lore.add(Component.empty());
-        lore.add(Component.text("Showing affordable plots only", NamedTextColor.DARK_GRAY, TextDecoration.ITALIC));
-
-        meta.lore(lore);
-        item.setItemMeta(meta);
-
-        return item;
-    }
-
     /**
      * Creates a player head item for the town's mayor
+     * Uncached skins show a placeholder head, which is patched in place once the skin has been resolved
      *
-     * @param town The town whose mayor to display
+     * @param holder The inventory holder of the catalog being rendered
      * @return ItemStack with mayor's head
      */
-    private static ItemStack createMayorHead(Town town) {
+    private static ItemStack createMayorHead(CatalogInventoryHolder holder) {
+        Town town = holder.getSelectedTown();
         ItemStack item = new ItemStack(Material.PLAYER_HEAD);
         SkullMeta meta = (SkullMeta) item.getItemMeta();
 
@@ -229,9 +315,28 @@ public class CatalogGUI {
 
         meta.lore(lore);
 
-        // Set the skull owner if mayor exists
+        // Set the skull profile if the mayor's skin is cached, otherwise resolve it in the background
         if (town.hasMayor()) {
-            meta.setOwningPlayer(Bukkit.getOfflinePlayer(town.getMayor().getUUID()));
+            UUID mayorUUID = town.getMayor().getUUID();
+            HeadProfileCache heads = TownyCatalog.getInstance().getHeadProfileCache();
+            HeadTextures textures = heads.getCached(mayorUUID, mayorName);
+
+            if (textures != null) {
+                CatalogMetrics.count(CatalogMetrics.Counter.HEAD_CACHE_HITS);
+                PlayerProfile profile = Bukkit.createProfile(mayorUUID, textures.getName());
+                profile.setProperty(new ProfileProperty("textures", textures.getValue(), textures.getSignature()));
+                meta.setPlayerProfile(profile);
+            } else {
+                CatalogMetrics.count(CatalogMetrics.Counter.HEAD_CACHE_MISSES);
+                heads.request(mayorUUID, mayorName).thenAccept(resolved -> {
+                    if (resolved != null) {
+                        Player viewer = Bukkit.getPlayer(holder.getPlayerUUID());
+                        if (viewer != null) {
+                            CatalogScheduler.runForEntity(TownyCatalog.getInstance(), viewer, () -> patchMayorHead(holder));
+                        }
+                    }
+                });
+            }
         }
 
         item.setItemMeta(meta);
@@ -239,24 +344,15 @@ public class CatalogGUI {
     }
 
     /**
-     * Creates a back button to return to town selection
+     * Replaces the placeholder mayor head once the skin has been resolved, if the catalog is still open
      *
-     * @return ItemStack back button
+     * @param holder The inventory holder of the catalog
      */
-    private static ItemStack createBackButton() {
-        ItemStack item = new ItemStack(Material.BARRIER);
-        ItemMeta meta = item.getItemMeta();
-
-        meta.displayName(Component.text("Back to Town Selection", NamedTextColor.RED)
-                .decoration(TextDecoration.ITALIC, false));
-
-        List<Component> lore = new ArrayList<>();
-        lore.add(Component.text("Click to return", NamedTextColor.GRAY)
-                .decoration(TextDecoration.ITALIC, false));
-        meta.lore(lore);
-
-        item.setItemMeta(meta);
-        return item;
+    private static void patchMayorHead(CatalogInventoryHolder holder) {
+        if (holder.getInventory().getViewers().isEmpty()) {
+            return;
+        }
+        holder.getRenderer().set(MAYOR_HEAD_SLOT, createMayorHead(holder));
     }
 
     /**
@@ -356,9 +452,9 @@ public class CatalogGUI {
      *
      * @param holder The inventory holder
      * @param slot   The clicked slot
-     * @return The TownBlock at that slot, or null
+     * @return Display data of the plot at that slot, or null if there is none or it is no longer for sale
      */
-    public static TownBlock getPlotFromSlot(CatalogInventoryHolder holder, int slot) {
+    public static PlotInfo getPlotFromSlot(CatalogInventoryHolder holder, int slot) {
         // Skip special slots in bottom row
         if (slot == BACK_BUTTON_SLOT || slot == MAYOR_HEAD_SLOT ||
             slot == PREVIOUS_PAGE_SLOT || slot == TOWN_INFO_SLOT ||
@@ -371,13 +467,12 @@ public class CatalogGUI {
             return null;
         }
 
-        int plotIndex = (holder.getCurrentPage() * PLOTS_PER_PAGE) + slot;
-        List<TownBlock> plots = holder.getAllPlots();
-
-        if (plotIndex >= plots.size()) {
+        List<PlotInfo> plots = holder.getPagePlots();
+        if (slot >= plots.size()) {
             return null;
         }
 
-        return plots.get(plotIndex);
+        // Re-read the plot so one sold since the page was rendered is not offered
+        return TownyCatalogAPI.getPlotDisplayInfo(plots.get(slot).getKey());
     }
 }
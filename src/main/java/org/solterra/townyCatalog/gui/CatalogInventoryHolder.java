@@ -1,11 +1,13 @@
 package org.solterra.townyCatalog.gui;
 
 import com.palmergames.bukkit.towny.object.Town;
-import com.palmergames.bukkit.towny.object.TownBlock;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.jetbrains.annotations.NotNull;
+import org.solterra.townyCatalog.api.CatalogFilter;
+import org.solterra.townyCatalog.model.CatalogPage;
+import org.solterra.townyCatalog.model.PlotInfo;
 
 import java.util.List;
 import java.util.UUID;
@@ -17,20 +19,34 @@ import java.util.UUID;
 public class CatalogInventoryHolder implements InventoryHolder {
 
     private Inventory inventory;
+    private SlotRenderer renderer;
     private final UUID playerUUID;
-    private final List<TownBlock> allPlots;
+    private final CatalogFilter filter;
     private final Town selectedTown;
+    private List<PlotInfo> pagePlots = List.of();
+    private int totalPlots;
+    private PlotSortMode sortMode = PlotSortMode.PRICE_ASCENDING;
     private int currentPage;
+    // Town version the town info, tax and mayor items were last built at
+    private long headerVersion = -1;
 
-    public CatalogInventoryHolder(Player player, List<TownBlock> allPlots, Town selectedTown) {
+    public CatalogInventoryHolder(Player player, CatalogFilter filter, Town selectedTown) {
         this.playerUUID = player.getUniqueId();
-        this.allPlots = allPlots;
+        this.filter = filter;
         this.selectedTown = selectedTown;
         this.currentPage = 0;
     }
 
     public void setInventory(Inventory inventory) {
         this.inventory = inventory;
+        this.renderer = new SlotRenderer(inventory);
+    }
+
+    /**
+     * @return The renderer that writes pages to this holder's inventory
+     */
+    public SlotRenderer getRenderer() {
+        return renderer;
     }
 
     @Override
@@ -39,8 +55,52 @@ public class CatalogInventoryHolder implements InventoryHolder {
         return inventory;
     }
 
-    public List<TownBlock> getAllPlots() {
-        return allPlots;
+    /**
+     * @return The plots on the current page in display order
+     */
+    public List<PlotInfo> getPagePlots() {
+        return pagePlots;
+    }
+
+    /**
+     * @return Number of matching plots across all pages
+     */
+    public int getTotalPlots() {
+        return totalPlots;
+    }
+
+    /**
+     * Records the page being shown and its query results
+     *
+     * @param page     The page number (0-indexed)
+     * @param contents The page's query results
+     */
+    public void setContents(int page, CatalogPage contents) {
+        this.currentPage = page;
+        this.pagePlots = contents.getPlots();
+        this.totalPlots = contents.getTotal();
+    }
+
+    /**
+     * @return The filters captured when the catalog was opened
+     */
+    public CatalogFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return The order the plots are shown in
+     */
+    public PlotSortMode getSortMode() {
+        return sortMode;
+    }
+
+    public void setSortMode(PlotSortMode sortMode) {
+        this.sortMode = sortMode;
+    }
+
+    public UUID getPlayerUUID() {
+        return playerUUID;
     }
 
     public Town getSelectedTown() {
@@ -55,8 +115,19 @@ public class CatalogInventoryHolder implements InventoryHolder {
         this.currentPage = page;
     }
 
+    /**
+     * @return The town version the header items were last built at, -1 before the first render
+     */
+    public long getHeaderVersion() {
+        return headerVersion;
+    }
+
+    public void setHeaderVersion(long headerVersion) {
+        this.headerVersion = headerVersion;
+    }
+
     public int getTotalPages() {
-        return (int) Math.ceil(allPlots.size() / 45.0);
+        return (int) Math.ceil(totalPlots / 45.0);
     }
 
     public boolean hasNextPage() {
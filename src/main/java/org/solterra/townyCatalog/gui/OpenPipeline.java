@@ -0,0 +1,99 @@
+package org.solterra.townyCatalog.gui;
+
+import org.bukkit.entity.Player;
+import org.solterra.townyCatalog.TownyCatalog;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Runs the expensive part of opening a GUI on the worker pool and hands the result back to the player's thread,
+ * which is the main thread on Paper and the thread of the player's region on Folia
+ * Each player has at most one open in flight; starting a new one, quitting or opening another inventory cancels it
+ */
+public class OpenPipeline {
+
+    private static final AtomicLong TICKETS = new AtomicLong();
+    private static final Map<UUID, Long> PENDING = new ConcurrentHashMap<>();
+
+    /**
+     * Computes a result off the main thread and renders it on the player's thread
+     *
+     * @param player The player the GUI is being opened for
+     * @param work   Computation over already captured data, must not touch Bukkit or Towny
+     * @param render Callback on the player's thread that creates and opens the inventory
+     * @param <T>    The type of the computed result
+     */
+    public static <T> void submit(Player player, Supplier<T> work, Consumer<T> render) {
+        long ticket = begin(player);
+        CompletableFuture.supplyAsync(work, TownyCatalog.getInstance().getWorkerPool())
+                .whenComplete((result, error) -> handOff(player, ticket, result, error, render));
+    }
+
+    /**
+     * Waits for a value fetched off the main thread, such as the viewer's balance, then continues on the player's thread
+     * Continues immediately if the value is already available; a pending fetch counts as the player's open in flight
+     *
+     * @param player The player the GUI is being opened for
+     * @param fetch  The value being fetched
+     * @param next   Callback on the player's thread that captures data and submits the open
+     * @param <T>    The type of the fetched value
+     */
+    public static <T> void await(Player player, CompletableFuture<T> fetch, Consumer<T> next) {
+        if (fetch.isDone() && !fetch.isCompletedExceptionally()) {
+            next.accept(fetch.join());
+            return;
+        }
+
+        long ticket = begin(player);
+        fetch.whenComplete((result, error) -> handOff(player, ticket, result, error, next));
+    }
+
+    /**
+     * Cancels any open in flight for a player
+     *
+     * @param playerUUID The player's UUID
+     */
+    public static void cancel(UUID playerUUID) {
+        PENDING.remove(playerUUID);
+    }
+
+    private static long begin(Player player) {
+        long ticket = TICKETS.incrementAndGet();
+        PENDING.put(player.getUniqueId(), ticket);
+        return ticket;
+    }
+
+    private static <T> void handOff(Player player, long ticket, T result, Throwable error, Consumer<T> render) {
+        TownyCatalog plugin = TownyCatalog.getInstance();
+        UUID playerUUID = player.getUniqueId();
+        if (error != null) {
+            plugin.getLogger().log(Level.WARNING, "Failed to prepare catalog for " + player.getName(), error);
+            PENDING.remove(playerUUID, ticket);
+            return;
+        }
+        if (!isCurrent(playerUUID, ticket) || !plugin.isEnabled()) {
+            return;
+        }
+
+        CatalogScheduler.runForEntity(plugin, player, () -> {
+            // Re-check on the player's thread, the player may have left or moved on meanwhile
+            if (!PENDING.remove(playerUUID, ticket) || !player.isOnline()) {
+                return;
+            }
+            render.accept(result);
+        });
+    }
+
+    private static boolean isCurrent(UUID playerUUID, long ticket) {
+        Long current = PENDING.get(playerUUID);
+        return current != null && current == ticket;
+    }
+}
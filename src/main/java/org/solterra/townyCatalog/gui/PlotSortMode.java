@@ -0,0 +1,43 @@
+package org.solterra.townyCatalog.gui;
+
+import org.solterra.townyCatalog.api.CatalogQuery;
+
+/**
+ * The orders a player can cycle through in the catalog
+ */
+public enum PlotSortMode {
+    PRICE_ASCENDING("Price: Low to High", CatalogQuery.SortKey.PRICE, true),
+    PRICE_DESCENDING("Price: High to Low", CatalogQuery.SortKey.PRICE, false),
+    NEAREST("Nearest to You", CatalogQuery.SortKey.DISTANCE, true),
+    NEWEST("Newest Listings", CatalogQuery.SortKey.LISTED, false);
+
+    private final String label;
+    private final CatalogQuery.SortKey sortKey;
+    private final boolean ascending;
+
+    PlotSortMode(String label, CatalogQuery.SortKey sortKey, boolean ascending) {
+        this.label = label;
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public CatalogQuery.SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * @return The mode after this one, wrapping around to the first
+     */
+    public PlotSortMode next() {
+        PlotSortMode[] modes = values();
+        return modes[(ordinal() + 1) % modes.length];
+    }
+}
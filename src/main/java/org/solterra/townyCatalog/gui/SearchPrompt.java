@@ -0,0 +1,69 @@
+package org.solterra.townyCatalog.gui;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.entity.Player;
+import org.solterra.townyCatalog.TownyCatalog;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chat input for the town selection search
+ * After a player clicks the search button, their next chat message is taken as the search text instead of being sent
+ */
+public class SearchPrompt {
+
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    // Chat arrives on async threads, so prompts are kept in a concurrent map of expiry times
+    private static final Map<UUID, Long> PENDING = new ConcurrentHashMap<>();
+
+    /**
+     * Closes the player's inventory and waits for their search text in chat
+     *
+     * @param player The player searching
+     */
+    public static void begin(Player player) {
+        player.closeInventory();
+        PENDING.put(player.getUniqueId(), System.currentTimeMillis() + TIMEOUT);
+        player.sendMessage(Component.text("Type a town or plot name in chat, or ", NamedTextColor.YELLOW)
+                .append(Component.text("cancel", NamedTextColor.GOLD))
+                .append(Component.text(" to go back.", NamedTextColor.YELLOW)));
+    }
+
+    /**
+     * Takes a chat message as search text if the player was prompted for one, may be called from any thread
+     *
+     * @param player  The player who chatted
+     * @param message The plain text of the message
+     * @return true if the message was search text and should not be sent to chat
+     */
+    public static boolean accept(Player player, String message) {
+        Long expiresAt = PENDING.remove(player.getUniqueId());
+        if (expiresAt == null || System.currentTimeMillis() > expiresAt) {
+            return false;
+        }
+
+        String search = message.trim();
+        CatalogScheduler.runForEntity(TownyCatalog.getInstance(), player, () -> {
+            if (!player.isOnline()) {
+                return;
+            }
+            TownSelectionGUI.openTownSelection(player, search.isEmpty() || search.equalsIgnoreCase("cancel") ? null : search);
+        });
+        return true;
+    }
+
+    /**
+     * Drops a player's pending prompt
+     *
+     * @param playerUUID The player's UUID
+     */
+    public static void cancel(UUID playerUUID) {
+        PENDING.remove(playerUUID);
+    }
+}
@@ -0,0 +1,70 @@
+package org.solterra.townyCatalog.gui;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Writes a page to an inventory by diffing it against what was last written, so only changed slots are sent
+ * Shared items such as the GUI templates are compared by reference, anything else by equality
+ */
+public class SlotRenderer {
+
+    private final Inventory inventory;
+    private final ItemStack[] shown;
+
+    public SlotRenderer(Inventory inventory) {
+        this.inventory = inventory;
+        this.shown = new ItemStack[inventory.getSize()];
+    }
+
+    /**
+     * Makes the inventory show the given contents, writing only the slots that differ
+     *
+     * @param desired Item for each slot, null for an empty slot
+     * @return Number of slots written
+     */
+    public int render(ItemStack[] desired) {
+        int written = 0;
+        for (int slot = 0; slot < shown.length; slot++) {
+            ItemStack item = slot < desired.length ? desired[slot] : null;
+            if (item == shown[slot]) {
+                continue;
+            }
+
+            // Keep the new reference so the next render can skip the equality check
+            if (item != null && item.equals(shown[slot])) {
+                shown[slot] = item;
+                continue;
+            }
+
+            inventory.setItem(slot, item);
+            shown[slot] = item;
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Writes a single slot if it differs from what is shown
+     *
+     * @param slot The slot to write
+     * @param item The item to show, null to empty the slot
+     */
+    public void set(int slot, ItemStack item) {
+        if (item == shown[slot] || (item != null && item.equals(shown[slot]))) {
+            shown[slot] = item;
+            return;
+        }
+
+        inventory.setItem(slot, item);
+        shown[slot] = item;
+    }
+
+    /**
+     * @param slot The slot to read
+     * @return The item last written to the slot, or null if it is empty
+     */
+    public ItemStack getShown(int slot) {
+        return shown[slot];
+    }
+}
@@ -0,0 +1,104 @@
+package org.solterra.townyCatalog.gui;
+
+import org.bukkit.inventory.ItemStack;
+import org.solterra.townyCatalog.api.CatalogFilter;
+import org.solterra.townyCatalog.api.TownyCatalogAPI;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.model.TownSnapshot;
+import org.solterra.townyCatalog.model.TownSummary;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caches each town's summary and rendered selection item, keyed by the town's index version
+ * An entry stays valid until the town's plots for sale or prices change, or the filters change on a configuration reload
+ * Summaries that depend on the viewer's balance are never cached
+ */
+public class TownItemCache {
+
+    private static final Map<UUID, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    /**
+     * Gets a town's summary, reusing the cached one while the town's version is unchanged
+     * Does not touch Towny, so it is safe to call from any thread
+     *
+     * @param town   The captured town
+     * @param filter The captured filters
+     * @return Summary of the town, or null if it is filtered out or has no matching plots
+     */
+    public static TownSummary getSummary(TownSnapshot town, CatalogFilter filter) {
+        // Open and public are town state rather than plot state, so they are always checked fresh
+        if (!filter.acceptsTown(town)) {
+            return null;
+        }
+        if (filter.isViewerSpecific()) {
+            return TownyCatalogAPI.summariseTown(town, filter);
+        }
+
+        UUID townUUID = town.getTown().getUUID();
+        Entry entry = ENTRIES.get(townUUID);
+        if (entry != null && entry.summary.getVersion() == town.getVersion()
+                && entry.settingsVersion == filter.getSettingsVersion()
+                && entry.summary.getName().equals(town.getName())) {
+            CatalogMetrics.count(CatalogMetrics.Counter.TOWN_CACHE_HITS);
+            return entry.summary;
+        }
+
+        CatalogMetrics.count(CatalogMetrics.Counter.TOWN_CACHE_MISSES);
+
+        TownSummary summary = TownyCatalogAPI.summariseTown(town, filter);
+        if (summary != null) {
+            ENTRIES.put(townUUID, new Entry(summary, filter.getSettingsVersion()));
+        } else {
+            ENTRIES.remove(townUUID);
+        }
+        return summary;
+    }
+
+    /**
+     * Gets the rendered selection item for a summary, building and caching it on first use
+     *
+     * @param summary The town summary
+     * @param factory Builds the item on a cache miss
+     * @return Shared item, which must not be modified
+     */
+    public static ItemStack getItem(TownSummary summary, Function<TownSummary, ItemStack> factory) {
+        if (summary.isViewerSpecific()) {
+            return factory.apply(summary);
+        }
+
+        Entry entry = ENTRIES.get(summary.getTown().getUUID());
+        if (entry == null || entry.summary != summary) {
+            // The summary is stale or was never cached, don't let it replace a newer entry
+            return factory.apply(summary);
+        }
+
+        ItemStack item = entry.item;
+        if (item == null) {
+            item = factory.apply(summary);
+            entry.item = item;
+        }
+        return item;
+    }
+
+    /**
+     * Drops every cached entry
+     */
+    public static void clear() {
+        ENTRIES.clear();
+    }
+
+    private static class Entry {
+        private final TownSummary summary;
+        private final long settingsVersion;
+        private volatile ItemStack item;
+
+        private Entry(TownSummary summary, long settingsVersion) {
+            this.summary = summary;
+            this.settingsVersion = settingsVersion;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package org.solterra.townyCatalog.gui;
 import com.palmergames.bukkit.towny.TownyAPI;
 import com.palmergames.bukkit.towny.object.Resident;
 import com.palmergames.bukkit.towny.object.Town;
-import com.palmergames.bukkit.towny.object.TownBlock;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
@@ -13,11 +12,17 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.solterra.townyCatalog.api.CatalogFilter;
 import org.solterra.townyCatalog.api.TownyCatalogAPI;
-import org.solterra.townyCatalog.util.GUIUtils;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.model.TownSnapshot;
+import org.solterra.townyCatalog.model.TownSummary;
+import org.solterra.townyCatalog.util.GUITemplates;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Manages the Town Selection GUI display
@@ -26,9 +31,11 @@ public class TownSelectionGUI {
 
     private static final int INVENTORY_SIZE = 54;
     private static final int TOWNS_PER_PAGE = 45;
-    private static final int PREVIOUS_PAGE_SLOT = 48;
-    private static final int INFO_SLOT = 49;
-    private static final int NEXT_PAGE_SLOT = 50;
+    public static final int SEARCH_SLOT = 46;
+    public static final int PREVIOUS_PAGE_SLOT = 48;
+    public static final int INFO_SLOT = 49;
+    public static final int NEXT_PAGE_SLOT = 50;
+    public static final int SORT_SLOT = 51;
 
     /**
      * Opens the town selection GUI for a player
@@ -36,41 +43,139 @@ public class TownSelectionGUI {
      * @param player The player to show the town selection to
      */
     public static void openTownSelection(Player player) {
+        openTownSelection(player, null);
+    }
+
+    /**
+     * Opens the town selection GUI for a player, showing only towns matching a search
+     *
+     * @param player The player to show the town selection to
+     * @param search Text town or plot names must start with, or null for every town
+     */
+    public static void openTownSelection(Player player, String search) {
+        long startNanos = System.nanoTime();
         Resident resident = TownyAPI.getInstance().getResident(player);
         if (resident == null) {
             player.sendMessage(Component.text("You must be a Towny resident to use the catalog!", NamedTextColor.RED));
             return;
         }
 
-        // Get all towns with purchasable plots
-        List<Town> towns = TownyCatalogAPI.getTownsWithPurchasablePlots(resident);
-
-        if (towns.isEmpty()) {
-            player.sendMessage(Component.text("No towns have plots available for purchase!", NamedTextColor.YELLOW));
-            return;
-        }
+        // The balance snapshot is fetched off the main thread, usually it is already cached
+        OpenPipeline.await(player, CatalogFilter.fetchBalance(resident),
+                balance -> showTownSelection(player, CatalogFilter.capture(balance), search, startNanos));
+    }
 
-        // Sort towns alphabetically
-        towns.sort((a, b) -> a.getName().compareToIgnoreCase(b.getName()));
+    /**
+     * Captures the towns and opens the town selection once the filters are known
+     *
+     * @param player     The player to show the town selection to
+     * @param filter     The captured filters
+     * @param search     The search text, or null for every town
+     * @param startNanos When the open was requested, for latency metrics
+     */
+    private static void showTownSelection(Player player, CatalogFilter filter, String search, long startNanos) {
+        // Capture everything we need from Towny while still on the main thread
+        List<TownSnapshot> snapshots = search != null
+                ? TownyCatalogAPI.snapshotTowns(TownyCatalogAPI.searchTowns(search), filter)
+                : TownyCatalogAPI.snapshotTowns(filter);
+
+        // Filter, summarise and order towns on the worker pool
+        OpenPipeline.submit(player, () -> summariseTowns(snapshots, filter), towns -> {
+            if (towns.isEmpty()) {
+                player.sendMessage(search != null
+                        ? Component.text("No towns with plots for sale match \"" + search + "\"!", NamedTextColor.YELLOW)
+                        : Component.text("No towns have plots available for purchase!", NamedTextColor.YELLOW));
+                return;
+            }
+
+            // Create holder first
+            TownSelectionHolder holder = new TownSelectionHolder(player, filter, search, towns);
+
+            // Create inventory with custom holder
+            Inventory inventory = Bukkit.createInventory(
+                    holder,
+                    INVENTORY_SIZE,
+                    Component.text(search != null ? "Search: " + search : "Select a Town",
+                            NamedTextColor.DARK_GREEN, TextDecoration.BOLD)
+            );
+
+            // Link inventory to holder
+            holder.setInventory(inventory);
+
+            // Populate the first page
+            populatePage(holder, 0);
+
+            // Open the inventory and keep it updated while it stays open
+            player.openInventory(inventory);
+            ViewManager.register(player, holder);
+            CatalogMetrics.time(CatalogMetrics.Timer.OPEN_TOWN_SELECTION, startNanos);
+            CatalogMetrics.count(CatalogMetrics.Counter.OPENS);
+        });
+    }
 
-        // Create holder first
-        TownSelectionHolder holder = new TownSelectionHolder(player, towns);
+    /**
+     * Re-summarises the changed towns and patches the open town selection, keeping the player on their page if it still exists
+     * Must be called on the main thread
+     *
+     * @param holder       The inventory holder of the open town selection
+     * @param changedTowns UUIDs of the towns whose plots for sale changed
+     */
+    public static void refresh(TownSelectionHolder holder, Set<UUID> changedTowns) {
+        CatalogFilter filter = holder.getFilter();
+        List<TownSummary> towns = new ArrayList<>(holder.getAllTowns());
+        towns.removeIf(summary -> changedTowns.contains(summary.getTown().getUUID()));
+
+        // A changed town may have started or stopped matching the search
+        Set<UUID> matches = holder.getSearch() != null ? TownyCatalogAPI.searchTowns(holder.getSearch()) : null;
+        for (UUID townUUID : changedTowns) {
+            if (matches != null && !matches.contains(townUUID)) {
+                continue;
+            }
+
+            TownSnapshot snapshot = TownyCatalogAPI.snapshotTownStats(townUUID, filter);
+            TownSummary summary = snapshot != null ? TownItemCache.getSummary(snapshot, filter) : null;
+            if (summary != null) {
+                towns.add(summary);
+            }
+        }
 
-        // Create inventory with custom holder
-        Inventory inventory = Bukkit.createInventory(
-                holder,
-                INVENTORY_SIZE,
-                Component.text("Select a Town", NamedTextColor.DARK_GREEN, TextDecoration.BOLD)
-        );
+        holder.setAllTowns(TownyCatalogAPI.orderTowns(towns, holder.getSortMode().getRankingKey()));
 
-        // Link inventory to holder
-        holder.setInventory(inventory);
+        int lastPage = Math.max(0, holder.getTotalPages() - 1);
+        populatePage(holder, Math.min(holder.getCurrentPage(), lastPage));
+    }
 
-        // Populate the first page
+    /**
+     * Switches an open town selection to the next sort order, starting again from the first page
+     * The index keeps every order sorted, so this only picks the shown towns out of the new order
+     * Must be called on the main thread
+     *
+     * @param holder The inventory holder of the open town selection
+     */
+    public static void cycleSortMode(TownSelectionHolder holder) {
+        holder.setSortMode(holder.getSortMode().next());
+        holder.setAllTowns(TownyCatalogAPI.orderTowns(holder.getAllTowns(), holder.getSortMode().getRankingKey()));
         populatePage(holder, 0);
+    }
+
+    /**
+     * Summarises the captured towns, reusing cached summaries where possible, in alphabetical order
+     *
+     * @param snapshots The captured towns
+     * @param filter    The captured filters
+     * @return Summaries of towns with at least one matching plot
+     */
+    private static List<TownSummary> summariseTowns(List<TownSnapshot> snapshots, CatalogFilter filter) {
+        List<TownSummary> towns = new ArrayList<>();
+        for (TownSnapshot snapshot : snapshots) {
+            TownSummary summary = TownItemCache.getSummary(snapshot, filter);
+            if (summary != null) {
+                towns.add(summary);
+            }
+        }
 
-        // Open the inventory
-        player.openInventory(inventory);
+        // The index keeps towns in alphabetical order already
+        return TownyCatalogAPI.orderTowns(towns, TownSortMode.NAME.getRankingKey());
     }
 
     /**
@@ -80,61 +185,48 @@ public class TownSelectionGUI {
      * @param page   The page number (0-indexed)
      */
     public static void populatePage(TownSelectionHolder holder, int page) {
-        Inventory inventory = holder.getInventory();
-        List<Town> allTowns = holder.getAllTowns();
-
-        // Clear the inventory
-        inventory.clear();
+        long startNanos = System.nanoTime();
+        List<TownSummary> allTowns = holder.getAllTowns();
+        ItemStack[] slots = new ItemStack[INVENTORY_SIZE];
 
         // Calculate start and end indices
         int startIndex = page * TOWNS_PER_PAGE;
         int endIndex = Math.min(startIndex + TOWNS_PER_PAGE, allTowns.size());
 
-        // Get player to check affordability
-        Player player = Bukkit.getPlayer(holder.getPlayerUUID());
-        if (player == null) return;
-
-        Resident resident = TownyAPI.getInstance().getResident(player);
-        if (resident == null) return;
-
         // Add town items
         for (int i = startIndex; i < endIndex; i++) {
-            Town town = allTowns.get(i);
-            ItemStack townItem = createTownItem(town, resident);
-            inventory.setItem(i - startIndex, townItem);
+            TownSummary town = allTowns.get(i);
+            slots[i - startIndex] = TownItemCache.getItem(town, TownSelectionGUI::createTownItem);
         }
 
+        slots[SEARCH_SLOT] = GUITemplates.searchButton(holder.getSearch());
+        slots[SORT_SLOT] = GUITemplates.sortButton(holder.getSortMode().getLabel());
+
         // Add navigation items
+        holder.setCurrentPage(page);
         if (holder.hasPreviousPage()) {
-            inventory.setItem(PREVIOUS_PAGE_SLOT, GUIUtils.createNavigationItem(
-                    Material.ARROW,
-                    "Previous Page",
-                    "Click to go to page " + page
-            ));
+            slots[PREVIOUS_PAGE_SLOT] = GUITemplates.previousPage(page);
         }
 
         // Add info item
-        inventory.setItem(INFO_SLOT, createInfoItem(page + 1, holder.getTotalPages(), allTowns.size()));
+        slots[INFO_SLOT] = GUITemplates.townSelectionInfo(page + 1, holder.getTotalPages(), allTowns.size());
 
         if (holder.hasNextPage()) {
-            inventory.setItem(NEXT_PAGE_SLOT, GUIUtils.createNavigationItem(
-                    Material.ARROW,
-                    "Next Page",
-                    "Click to go to page " + (page + 2)
-            ));
+            slots[NEXT_PAGE_SLOT] = GUITemplates.nextPage(page + 2);
         }
 
-        holder.setCurrentPage(page);
+        // Only slots whose contents changed are written
+        CatalogMetrics.count(CatalogMetrics.Counter.SLOTS_WRITTEN, holder.getRenderer().render(slots));
+        CatalogMetrics.time(CatalogMetrics.Timer.POPULATE_PAGE, startNanos);
     }
 
     /**
      * Creates an ItemStack representing a town
      *
-     * @param town     The town
-     * @param resident The resident viewing the catalog
+     * @param town The town summary
      * @return ItemStack with town details
      */
-    private static ItemStack createTownItem(Town town, Resident resident) {
+    private static ItemStack createTownItem(TownSummary town) {
         ItemStack item = new ItemStack(Material.BEACON);
         ItemMeta meta = item.getItemMeta();
 
@@ -144,18 +236,9 @@ public class TownSelectionGUI {
                 .decoration(TextDecoration.ITALIC, false));
 
         // Get plot information
-        List<TownBlock> plots = TownyCatalogAPI.getAllPurchasablePlotsIn(town, resident);
-        int plotCount = plots.size();
-
-        // Calculate price range
-        double minPrice = plots.stream()
-                .mapToDouble(TownBlock::getPlotPrice)
-                .min()
-                .orElse(0.0);
-        double maxPrice = plots.stream()
-                .mapToDouble(TownBlock::getPlotPrice)
-                .max()
-                .orElse(0.0);
+        int plotCount = town.getPlotCount();
+        double minPrice = town.getMinPrice();
+        double maxPrice = town.getMaxPrice();
 
         // Create lore
         List<Component> lore = new ArrayList<>();
@@ -185,38 +268,6 @@ public class TownSelectionGUI {
         return item;
     }
 
-    /**
-     * Creates the info item showing current page and town count
-     *
-     * @param currentPage Current page number (1-indexed for display)
-     * @param totalPages  Total number of pages
-     * @param totalTowns  Total number of towns
-     * @return ItemStack info item
-     */
-    private static ItemStack createInfoItem(int currentPage, int totalPages, int totalTowns) {
-        ItemStack item = new ItemStack(Material.BOOK);
-        ItemMeta meta = item.getItemMeta();
-
-        meta.displayName(Component.text("Town Selection", NamedTextColor.AQUA)
-                .decoration(TextDecoration.ITALIC, false));
-
-        List<Component> lore = new ArrayList<>();
-        lore.add(Component.empty());
-        lore.add(Component.text("Page: ", NamedTextColor.GRAY)
-                .append(Component.text(currentPage + "/" + totalPages, NamedTextColor.WHITE))
-                .decoration(TextDecoration.ITALIC, false));
-        lore.add(Component.text("Total Towns: ", NamedTextColor.GRAY)
-                .append(Component.text(String.valueOf(totalTowns), NamedTextColor.WHITE))
-                .decoration(TextDecoration.ITALIC, false));
-        lore.add(Component.empty());
-        lore.add(Component.text("Select a town to browse plots", NamedTextColor.DARK_GRAY, TextDecoration.ITALIC));
-
-        meta.lore(lore);
-        item.setItemMeta(meta);
-
-        return item;
-    }
-
     /**
      * Gets the town from a clicked slot
      *
@@ -230,12 +281,12 @@ public class TownSelectionGUI {
         }
 
         int townIndex = (holder.getCurrentPage() * TOWNS_PER_PAGE) + slot;
-        List<Town> towns = holder.getAllTowns();
+        List<TownSummary> towns = holder.getAllTowns();
 
         if (townIndex >= towns.size()) {
             return null;
         }
 
-        return towns.get(townIndex);
+        return towns.get(townIndex).getTown();
     }
 }
@@ -1,10 +1,11 @@
 package org.solterra.townyCatalog.gui;
 
-import com.palmergames.bukkit.towny.object.Town;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.jetbrains.annotations.NotNull;
+import org.solterra.townyCatalog.api.CatalogFilter;
+import org.solterra.townyCatalog.model.TownSummary;
 
 import java.util.List;
 import java.util.UUID;
@@ -16,18 +17,32 @@ import java.util.UUID;
 public class TownSelectionHolder implements InventoryHolder {
 
     private Inventory inventory;
+    private SlotRenderer renderer;
     private final UUID playerUUID;
-    private final List<Town> allTowns;
+    private final CatalogFilter filter;
+    private final String search;
+    private List<TownSummary> allTowns;
     private int currentPage;
+    private TownSortMode sortMode = TownSortMode.NAME;
 
-    public TownSelectionHolder(Player player, List<Town> allTowns) {
+    public TownSelectionHolder(Player player, CatalogFilter filter, String search, List<TownSummary> allTowns) {
         this.playerUUID = player.getUniqueId();
+        this.filter = filter;
+        this.search = search;
         this.allTowns = allTowns;
         this.currentPage = 0;
     }
 
     public void setInventory(Inventory inventory) {
         this.inventory = inventory;
+        this.renderer = new SlotRenderer(inventory);
+    }
+
+    /**
+     * @return The renderer that writes pages to this holder's inventory
+     */
+    public SlotRenderer getRenderer() {
+        return renderer;
     }
 
     @Override
@@ -40,10 +55,44 @@ public class TownSelectionHolder implements InventoryHolder {
         return playerUUID;
     }
 
-    public List<Town> getAllTowns() {
+    public List<TownSummary> getAllTowns() {
         return allTowns;
     }
 
+    /**
+     * Replaces the listed towns after plots for sale changed
+     *
+     * @param allTowns Town summaries in display order
+     */
+    public void setAllTowns(List<TownSummary> allTowns) {
+        this.allTowns = allTowns;
+    }
+
+    /**
+     * @return The filters captured when the town selection was opened
+     */
+    public CatalogFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return The search text the towns are filtered by, or null if every town is shown
+     */
+    public String getSearch() {
+        return search;
+    }
+
+    /**
+     * @return The order the towns are shown in
+     */
+    public TownSortMode getSortMode() {
+        return sortMode;
+    }
+
+    public void setSortMode(TownSortMode sortMode) {
+        this.sortMode = sortMode;
+    }
+
     public int getCurrentPage() {
         return currentPage;
     }
@@ -0,0 +1,38 @@
+package org.solterra.townyCatalog.gui;
+
+import org.solterra.townyCatalog.index.TownRanking;
+
+/**
+ * The orders a player can cycle through in the town selection
+ */
+public enum TownSortMode {
+    NAME("Name", TownRanking.Key.NAME),
+    CHEAPEST("Cheapest Plot", TownRanking.Key.PRICE),
+    POPULATION("Most Residents", TownRanking.Key.POPULATION),
+    SIZE("Largest Town", TownRanking.Key.SIZE),
+    NEWEST("Newest Listing", TownRanking.Key.NEWEST);
+
+    private final String label;
+    private final TownRanking.Key rankingKey;
+
+    TownSortMode(String label, TownRanking.Key rankingKey) {
+        this.label = label;
+        this.rankingKey = rankingKey;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public TownRanking.Key getRankingKey() {
+        return rankingKey;
+    }
+
+    /**
+     * @return The mode after this one, wrapping around to the first
+     */
+    public TownSortMode next() {
+        TownSortMode[] modes = values();
+        return modes[(ordinal() + 1) % modes.length];
+    }
+}
@@ -0,0 +1,125 @@
+package org.solterra.townyCatalog.gui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.InventoryHolder;
+import org.solterra.townyCatalog.TownyCatalog;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks open catalog and town selection windows and patches them when plots for sale change
+ * Changes are collected for the rest of the tick and applied in one pass, so a burst of changes costs one refresh per window
+ * Changes are collected on the global region, then each window is patched on its viewer's thread
+ */
+public class ViewManager {
+
+    private static final Map<UUID, InventoryHolder> VIEWS = new ConcurrentHashMap<>();
+    private static final Set<UUID> CHANGED_TOWNS = new HashSet<>();
+    private static boolean flushScheduled;
+
+    /**
+     * Starts keeping a player's open window up to date
+     *
+     * @param player The player viewing the window
+     * @param holder The holder of the open window
+     */
+    public static void register(Player player, InventoryHolder holder) {
+        VIEWS.put(player.getUniqueId(), holder);
+    }
+
+    /**
+     * Stops updating a window, if it is still the player's registered one
+     *
+     * @param playerUUID The player's UUID
+     * @param holder     The holder of the closed window
+     */
+    public static void unregister(UUID playerUUID, InventoryHolder holder) {
+        VIEWS.remove(playerUUID, holder);
+    }
+
+    /**
+     * Stops updating any window of a player
+     *
+     * @param playerUUID The player's UUID
+     */
+    public static void unregister(UUID playerUUID) {
+        VIEWS.remove(playerUUID);
+    }
+
+    /**
+     * Records that a town's plots for sale changed, refreshing affected windows on the next tick
+     *
+     * @param townUUID The UUID of the changed town
+     */
+    public static void townChanged(UUID townUUID) {
+        TownyCatalog plugin = TownyCatalog.getInstance();
+        if (!Bukkit.isGlobalTickThread()) {
+            CatalogScheduler.runGlobal(plugin, () -> townChanged(townUUID));
+            return;
+        }
+
+        // With no windows open there is nothing to patch, and new windows read the index fresh
+        if (VIEWS.isEmpty()) {
+            return;
+        }
+
+        CHANGED_TOWNS.add(townUUID);
+        if (flushScheduled || !plugin.isEnabled()) {
+            return;
+        }
+
+        flushScheduled = true;
+        CatalogScheduler.runGlobal(plugin, ViewManager::flush);
+    }
+
+    /**
+     * @return Number of windows being kept up to date
+     */
+    public static int size() {
+        return VIEWS.size();
+    }
+
+    private static void flush() {
+        flushScheduled = false;
+        Set<UUID> changed = new HashSet<>(CHANGED_TOWNS);
+        CHANGED_TOWNS.clear();
+
+        TownyCatalog plugin = TownyCatalog.getInstance();
+        for (Map.Entry<UUID, InventoryHolder> view : VIEWS.entrySet()) {
+            InventoryHolder holder = view.getValue();
+            if (holder instanceof CatalogInventoryHolder catalogHolder
+                    && !changed.contains(catalogHolder.getSelectedTown().getUUID())) {
+                continue;
+            }
+
+            Player viewer = Bukkit.getPlayer(view.getKey());
+            if (viewer != null) {
+                // Paper runs this straight away, as the main thread owns every player
+                CatalogScheduler.onEntity(plugin, viewer, () -> refresh(view.getKey(), holder, changed));
+            }
+        }
+    }
+
+    /**
+     * Patches one window on its viewer's thread, unless it was closed or replaced since the flush
+     */
+    private static void refresh(UUID playerUUID, InventoryHolder holder, Set<UUID> changed) {
+        if (VIEWS.get(playerUUID) != holder) {
+            return;
+        }
+
+        if (holder instanceof CatalogInventoryHolder catalogHolder) {
+            CatalogGUI.refresh(catalogHolder);
+        } else if (holder instanceof TownSelectionHolder townHolder) {
+            TownSelectionGUI.refresh(townHolder, changed);
+        }
+        CatalogMetrics.count(CatalogMetrics.Counter.LIVE_REFRESHES);
+    }
+}
@@ -0,0 +1,381 @@
+package org.solterra.townyCatalog.index;
+
+import com.palmergames.bukkit.towny.TownyAPI;
+import com.palmergames.bukkit.towny.object.Town;
+import com.palmergames.bukkit.towny.object.WorldCoord;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Saves the plot index and the center heights of its plots to a compact binary file, so a restart can skip most of
+ * the Towny scan and the first teleports don't wait on chunk loads
+ * Every town's claim count and a CRC32 of its saved plots are stored alongside them; on startup a town whose count
+ * still matches Towny's and whose plots pass their checksum is restored as saved without asking Towny about any plot,
+ * and any other town is scanned as usual
+ * The snapshot is saved periodically and on shutdown, so a clean restart restores exactly; after a crash, a plot
+ * changed since the last save without a claim or unclaim in its town stays as saved until it changes again
+ * The file is a fixed header holding a format version and a CRC32 of the payload, then the payload; a file with any
+ * other version or a bad checksum is ignored in favour of a full scan
+ */
+public class IndexSnapshot {
+
+    private static final int MAGIC = 0x54434154;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 24;
+    private static final int NO_HEIGHT = Integer.MIN_VALUE;
+
+    private final Plugin plugin;
+    private final File file;
+    private final PlotIndex index;
+    private final PlotHeightCache heightCache;
+    private ScheduledTask task;
+
+    public IndexSnapshot(Plugin plugin, File file, PlotIndex index, PlotHeightCache heightCache) {
+        this.plugin = plugin;
+        this.file = file;
+        this.index = index;
+        this.heightCache = heightCache;
+    }
+
+    /**
+     * Rebuilds the index from the saved snapshot, scanning only the towns it no longer matches
+     * Must be called on the main thread
+     */
+    public void restore() {
+        Map<UUID, SavedTown> saved = load();
+        Set<UUID> restored = index.rebuild(saved);
+
+        for (UUID townUUID : restored) {
+            SavedTown town = saved.get(townUUID);
+            for (int i = 0; i < town.size(); i++) {
+                if (town.heights[i] != NO_HEIGHT) {
+                    heightCache.put(new WorldCoord(town.worlds[i], town.xs[i], town.zs[i]), town.heights[i]);
+                }
+            }
+        }
+
+        if (!saved.isEmpty()) {
+            plugin.getLogger().info("Restored " + restored.size() + " of " + saved.size() + " towns from "
+                    + file.getName() + ", rescanned the rest");
+        }
+    }
+
+    /**
+     * (Re)starts the periodic save, replacing any running schedule
+     * The index is captured on the global region, which owns Towny's data, and written to disk off it
+     *
+     * @param intervalMinutes Minutes between saves, 0 or less to disable
+     */
+    public void start(int intervalMinutes) {
+        stop();
+        if (intervalMinutes <= 0) {
+            return;
+        }
+
+        long intervalTicks = intervalMinutes * 60L * 20L;
+        task = CatalogScheduler.runGlobalTimer(plugin, () -> {
+            // Plot renames aren't announced by Towny, so they are picked up here before saving
+            index.refreshRenamedPlots();
+            byte[] payload = capture();
+            CatalogScheduler.runAsync(plugin, () -> write(payload));
+        }, intervalTicks);
+    }
+
+    /**
+     * Stops the periodic save
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Captures and writes the snapshot, blocking until it is on disk
+     * Must be called on the main thread
+     */
+    public void save() {
+        write(capture());
+    }
+
+    /**
+     * Encodes every town's claim count, plots for sale and the checksum of its plots
+     * Towns without plots for sale are included too, so they can also be trusted without a scan
+     */
+    private byte[] capture() {
+        long startNanos = System.nanoTime();
+        PlotStore store = index.getStore();
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+
+        ByteArrayOutputStream towns = new ByteArrayOutputStream();
+        ByteArrayOutputStream plots = new ByteArrayOutputStream();
+        CRC32 checksum = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(towns); DataOutputStream plotOut = new DataOutputStream(plots)) {
+            List<Town> allTowns = new ArrayList<>(TownyAPI.getInstance().getTowns());
+            out.writeInt(allTowns.size());
+            for (Town town : allTowns) {
+                TownListing listing = index.getListing(town.getUUID());
+                TownListing.ListingOrder order = listing != null ? listing.getListingOrder() : null;
+                int plotCount = order != null ? order.size() : 0;
+
+                out.writeLong(town.getUUID().getMostSignificantBits());
+                out.writeLong(town.getUUID().getLeastSignificantBits());
+                out.writeInt(town.getNumTownBlocks());
+                out.writeInt(plotCount);
+
+                plots.reset();
+                for (int i = 0; i < plotCount; i++) {
+                    long key = order.getKeys()[i];
+                    String worldName = store.worldName(key);
+                    Integer height = heightCache.getCached(new WorldCoord(worldName, PlotKey.x(key), PlotKey.z(key)));
+
+                    plotOut.writeInt(stringId(worldName, stringIds, strings));
+                    plotOut.writeInt(PlotKey.x(key));
+                    plotOut.writeInt(PlotKey.z(key));
+                    plotOut.writeDouble(order.getPrices()[i]);
+                    plotOut.writeInt(stringId(store.getTypeName(key), stringIds, strings));
+                    plotOut.writeInt(stringId(store.getPlotName(key), stringIds, strings));
+                    plotOut.writeBoolean(order.getResidential()[i]);
+                    plotOut.writeLong(order.getListedAt()[i]);
+                    plotOut.writeInt(height != null ? height : NO_HEIGHT);
+                }
+                plotOut.flush();
+
+                checksum.reset();
+                checksum.update(plots.toByteArray());
+                out.writeLong(checksum.getValue());
+                plots.writeTo(out);
+            }
+        } catch (IOException e) {
+            // Writing to memory can't fail
+            throw new IllegalStateException(e);
+        }
+
+        // Interned strings go first, so plots can refer to them by position
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(towns.size() + strings.size() * 16);
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            towns.writeTo(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        CatalogMetrics.time(CatalogMetrics.Timer.SNAPSHOT_CAPTURE, startNanos);
+        return payload.toByteArray();
+    }
+
+    /**
+     * Writes the header and payload to a temporary file and moves it over the previous snapshot,
+     * so a crash mid-write never leaves a half-written snapshot behind
+     */
+    private synchronized void write(byte[] payload) {
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(payload.length)
+                .putLong(checksum.getValue())
+                .flip();
+
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer body = ByteBuffer.wrap(payload);
+                while (header.hasRemaining() || body.hasRemaining()) {
+                    channel.write(new ByteBuffer[]{header, body});
+                }
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to save the plot index to " + file.getName(), e);
+        }
+    }
+
+    /**
+     * Maps the snapshot file into memory and decodes it
+     *
+     * @return Saved towns by UUID, empty if there is no usable snapshot
+     */
+    private Map<UUID, SavedTown> load() {
+        if (!file.exists()) {
+            return Map.of();
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                plugin.getLogger().warning("Ignoring truncated index snapshot " + file.getName());
+                return Map.of();
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+            long length = buffer.getLong();
+            long expected = buffer.getLong();
+            if (magic != MAGIC || version != FORMAT_VERSION) {
+                plugin.getLogger().info("Ignoring index snapshot " + file.getName() + " from another format version");
+                return Map.of();
+            }
+            if (length != buffer.remaining()) {
+                plugin.getLogger().warning("Ignoring truncated index snapshot " + file.getName());
+                return Map.of();
+            }
+
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.duplicate());
+            if (checksum.getValue() != expected) {
+                plugin.getLogger().warning("Ignoring corrupt index snapshot " + file.getName());
+                return Map.of();
+            }
+            return decode(buffer);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read index snapshot " + file.getName(), e);
+            return Map.of();
+        }
+    }
+
+    private static Map<UUID, SavedTown> decode(ByteBuffer buffer) {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int townCount = buffer.getInt();
+        Map<UUID, SavedTown> towns = new HashMap<>(townCount * 2);
+        for (int t = 0; t < townCount; t++) {
+            UUID townUUID = new UUID(buffer.getLong(), buffer.getLong());
+            SavedTown town = new SavedTown(buffer.getInt(), buffer.getInt());
+            long expected = buffer.getLong();
+            int plotsStart = buffer.position();
+            for (int i = 0; i < town.size(); i++) {
+                town.worlds[i] = strings[buffer.getInt()];
+                town.xs[i] = buffer.getInt();
+                town.zs[i] = buffer.getInt();
+                town.prices[i] = buffer.getDouble();
+                town.types[i] = strings[buffer.getInt()];
+                town.names[i] = strings[buffer.getInt()];
+                town.residential[i] = buffer.get() != 0;
+                town.listedAt[i] = buffer.getLong();
+                town.heights[i] = buffer.getInt();
+            }
+
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.duplicate().position(plotsStart).limit(buffer.position()));
+            town.intact = checksum.getValue() == expected;
+            towns.put(townUUID, town);
+        }
+        return towns;
+    }
+
+    private static int stringId(String string, Map<String, Integer> stringIds, List<String> strings) {
+        return stringIds.computeIfAbsent(string != null ? string : "", value -> {
+            strings.add(value);
+            return strings.size() - 1;
+        });
+    }
+
+    /**
+     * One town as it was saved: its claim count and its plots for sale in listing order, as parallel columns
+     */
+    public static class SavedTown {
+        private final int claimCount;
+        private boolean intact;
+        private final String[] worlds;
+        private final int[] xs;
+        private final int[] zs;
+        private final double[] prices;
+        private final String[] types;
+        private final String[] names;
+        private final boolean[] residential;
+        private final long[] listedAt;
+        private final int[] heights;
+
+        private SavedTown(int claimCount, int plotCount) {
+            this.claimCount = claimCount;
+            this.worlds = new String[plotCount];
+            this.xs = new int[plotCount];
+            this.zs = new int[plotCount];
+            this.prices = new double[plotCount];
+            this.types = new String[plotCount];
+            this.names = new String[plotCount];
+            this.residential = new boolean[plotCount];
+            this.listedAt = new long[plotCount];
+            this.heights = new int[plotCount];
+        }
+
+        /**
+         * @param town The town as Towny has it now
+         * @return true if the town still has the claims it had when saved and its saved plots passed their checksum,
+         *         so they can be restored without a scan
+         */
+        public boolean matches(Town town) {
+            return intact && !town.isRuined() && town.getNumTownBlocks() == claimCount;
+        }
+
+        /**
+         * @return Number of saved plots for sale
+         */
+        public int size() {
+            return xs.length;
+        }
+
+        /**
+         * Passes every saved plot to a visitor, oldest listing first
+         *
+         * @param visitor Receives each plot's coordinate, price, type, name, residential flag and listing time
+         */
+        void forEachPlot(PlotVisitor visitor) {
+            for (int i = 0; i < size(); i++) {
+                visitor.visit(worlds[i], xs[i], zs[i], prices[i], types[i], names[i], residential[i], listedAt[i]);
+            }
+        }
+    }
+
+    /**
+     * Receives saved plots from {@link SavedTown#forEachPlot(PlotVisitor)}
+     */
+    @FunctionalInterface
+    interface PlotVisitor {
+        void visit(String worldName, int x, int z, double price, String typeName, String plotName,
+                   boolean residential, long listedAt);
+    }
+}
@@ -0,0 +1,159 @@
+package org.solterra.townyCatalog.index;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long keys to int values, with linear probing and backward-shift deletion
+ * Stores keys and values in primitive arrays, so lookups never box or allocate
+ * {@link PlotKey#NONE} is reserved as the empty marker and cannot be used as a key
+ * Not thread-safe; callers synchronize externally
+ */
+public class LongIntOpenMap {
+
+    private static final float MAX_LOAD = 0.6f;
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * @param expectedSize Number of entries to size for up front
+     * @param missingValue Value returned by {@link #get} for absent keys
+     */
+    public LongIntOpenMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * @param key The key
+     * @return The value, or the missing value if absent
+     */
+    public int get(long key) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : missingValue;
+    }
+
+    /**
+     * @param key The key
+     * @return true if the key is present
+     */
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Inserts or replaces a mapping
+     *
+     * @param key   The key
+     * @param value The value
+     */
+    public void put(long key, int value) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != PlotKey.NONE) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * MAX_LOAD) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes a mapping
+     *
+     * @param key The key
+     * @return The removed value, or the missing value if absent
+     */
+    public int remove(long key) {
+        int slot = indexOf(key);
+        if (slot < 0) {
+            return missingValue;
+        }
+
+        int removed = values[slot];
+        // Shift following entries of the probe run back so lookups never stop at a hole
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != PlotKey.NONE) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = PlotKey.NONE;
+        size--;
+        return removed;
+    }
+
+    /**
+     * @return Number of mappings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every mapping
+     */
+    public void clear() {
+        Arrays.fill(keys, PlotKey.NONE);
+        size = 0;
+    }
+
+    private int indexOf(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != PlotKey.NONE) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != PlotKey.NONE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, PlotKey.NONE);
+        mask = capacity - 1;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 4) / MAX_LOAD);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int mix(long key) {
+        // Murmur3 finalizer, spreads neighbouring coordinates across the table
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,164 @@
+package org.solterra.townyCatalog.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix search over names, kept as one sorted array of case-folded names
+ * A lookup is a binary search to the first candidate followed by a scan over the matches;
+ * names are inserted and removed in place, so the array is always ready to search
+ * All methods are synchronized so searches can run while the main thread updates names
+ *
+ * @param <T> Type of the id each name belongs to
+ */
+public class NamePrefixIndex<T> {
+
+    private final Map<T, String> foldedById = new HashMap<>();
+    private String[] names = new String[16];
+    private Object[] ids = new Object[16];
+    private int size;
+
+    /**
+     * Case-folds a name or search text; underscores match spaces, as Towny stores spaces in names as underscores
+     *
+     * @param text The text to fold
+     * @return The folded text
+     */
+    public static String fold(String text) {
+        return text.replace('_', ' ').toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds or renames an entry, blank names are not indexed
+     *
+     * @param id   The id the name belongs to
+     * @param name The current name
+     */
+    public synchronized void put(T id, String name) {
+        String folded = name != null ? fold(name).trim() : "";
+        String previous = foldedById.get(id);
+        if (folded.equals(previous)) {
+            return;
+        }
+
+        if (previous != null) {
+            removeAt(indexOf(previous, id));
+        }
+        if (folded.isEmpty()) {
+            foldedById.remove(id);
+            return;
+        }
+
+        foldedById.put(id, folded);
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+
+        // Equal names keep insertion order
+        int at = upperBound(folded);
+        System.arraycopy(names, at, names, at + 1, size - at);
+        System.arraycopy(ids, at, ids, at + 1, size - at);
+        names[at] = folded;
+        ids[at] = id;
+        size++;
+    }
+
+    /**
+     * Removes an entry
+     *
+     * @param id The id to remove
+     */
+    public synchronized void remove(T id) {
+        String previous = foldedById.remove(id);
+        if (previous != null) {
+            removeAt(indexOf(previous, id));
+        }
+    }
+
+    /**
+     * Removes every entry
+     */
+    public synchronized void clear() {
+        foldedById.clear();
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(ids, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Finds every entry whose name starts with a prefix, ignoring case
+     *
+     * @param prefix The search text
+     * @return Ids of the matching entries in name order, empty for a blank prefix
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> search(String prefix) {
+        String folded = fold(prefix).trim();
+        List<T> matches = new ArrayList<>();
+        if (folded.isEmpty()) {
+            return matches;
+        }
+
+        for (int i = lowerBound(folded); i < size && names[i].startsWith(folded); i++) {
+            matches.add((T) ids[i]);
+        }
+        return matches;
+    }
+
+    /**
+     * @return Number of indexed names
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private int indexOf(String folded, T id) {
+        for (int i = lowerBound(folded); i < size && names[i].equals(folded); i++) {
+            if (ids[i].equals(id)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Name index is missing " + id);
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(names, index + 1, names, index, size - index - 1);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        names[size] = null;
+        ids[size] = null;
+    }
+
+    private int lowerBound(String folded) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(folded) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(String folded) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(folded) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,31 @@
+package org.solterra.townyCatalog.index;
+
+import java.util.UUID;
+
+/**
+ * Receives individual plot changes from the {@link PlotIndex}, on the thread making the change
+ * Town-level changes are also published through {@link PlotIndex#addChangeListener}, which is enough for views
+ */
+public interface PlotChangeListener {
+
+    /**
+     * Called after a plot is listed, re-priced or otherwise updated; its new data is already in the store
+     *
+     * @param key      The plot's packed key
+     * @param townUUID The town selling the plot
+     */
+    void plotListed(long key, UUID townUUID);
+
+    /**
+     * Called after a plot is taken off sale; it is no longer in the store
+     *
+     * @param key      The plot's packed key
+     * @param townUUID The town that was selling the plot
+     */
+    void plotUnlisted(long key, UUID townUUID);
+
+    /**
+     * Called after the whole index was rebuilt, which replaces every plot without individual changes
+     */
+    void indexRebuilt();
+}
@@ -0,0 +1,195 @@
+package org.solterra.townyCatalog.index;
+
+import com.palmergames.bukkit.towny.object.WorldCoord;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.HeightMap;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the highest block Y of each plot's center column, keyed by townblock coordinate
+ * Missing heights are read from a ChunkSnapshot off the main thread after loading the chunk asynchronously
+ * Snapshots are taken on the thread owning the chunk's region, which on Paper is always the main thread
+ * Both paths read the WORLD_SURFACE heightmap, the only one a ChunkSnapshot carries, so a height doesn't depend on
+ * which path cached it
+ * Only plots in the {@link PlotIndex} are cached, and their heights are dropped once they are taken off sale
+ */
+public class PlotHeightCache implements PlotChangeListener {
+
+    private final Map<WorldCoord, Integer> heights = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private final Plugin plugin;
+    private final Executor worker;
+    private final PlotIndex index;
+
+    public PlotHeightCache(Plugin plugin, Executor worker, PlotIndex index) {
+        this.plugin = plugin;
+        this.worker = worker;
+        this.index = index;
+    }
+
+    /**
+     * Gets the cached height of a plot's center column
+     *
+     * @param worldCoord The townblock coordinate
+     * @return The highest block Y, or null if not cached
+     */
+    public Integer getCached(WorldCoord worldCoord) {
+        return heights.get(worldCoord);
+    }
+
+    /**
+     * Gets the height of a plot's center column, reading the world synchronously on a miss
+     * Must be called on the thread owning the column's region, the main thread on Paper
+     *
+     * @param world      The world of the plot
+     * @param worldCoord The townblock coordinate
+     * @param centerX    Block X of the center column
+     * @param centerZ    Block Z of the center column
+     * @return The highest block Y
+     */
+    public int getHeight(World world, WorldCoord worldCoord, int centerX, int centerZ) {
+        Integer cached = heights.get(worldCoord);
+        if (cached != null) {
+            CatalogMetrics.count(CatalogMetrics.Counter.HEIGHT_CACHE_HITS);
+            return cached;
+        }
+
+        CatalogMetrics.count(CatalogMetrics.Counter.HEIGHT_CACHE_MISSES);
+        int height = world.getHighestBlockYAt(centerX, centerZ, HeightMap.WORLD_SURFACE);
+        store(worldCoord, height);
+        return height;
+    }
+
+    /**
+     * Gets the height of a plot's center column without blocking the main thread on a miss
+     * The chunk is loaded asynchronously and its heightmap is read from a snapshot on the worker pool
+     *
+     * @param world      The world of the plot
+     * @param worldCoord The townblock coordinate
+     * @param centerX    Block X of the center column
+     * @param centerZ    Block Z of the center column
+     * @return Future completing with the highest block Y, on the calling thread for hits and a worker thread for misses
+     */
+    public CompletableFuture<Integer> getHeightAsync(World world, WorldCoord worldCoord, int centerX, int centerZ) {
+        Integer cached = heights.get(worldCoord);
+        if (cached != null) {
+            CatalogMetrics.count(CatalogMetrics.Counter.HEIGHT_CACHE_HITS);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CatalogMetrics.count(CatalogMetrics.Counter.HEIGHT_CACHE_MISSES);
+        long startEpoch = epoch.get();
+        return world.getChunkAtAsync(centerX >> 4, centerZ >> 4)
+                .thenCompose(this::snapshot)
+                .thenApplyAsync(snapshot -> {
+                    int height = readHeight(snapshot, centerX, centerZ);
+                    // Don't cache a value that an edit to the column may have made stale meanwhile
+                    if (epoch.get() == startEpoch) {
+                        store(worldCoord, height);
+                    }
+                    return height;
+                }, worker);
+    }
+
+    /**
+     * Stores a height read earlier, such as one restored from an index snapshot
+     *
+     * @param worldCoord The townblock coordinate
+     * @param height     The highest block Y
+     */
+    public void put(WorldCoord worldCoord, int height) {
+        store(worldCoord, height);
+    }
+
+    /**
+     * Forgets the height of a plot's center column, used when a block in that column changes
+     *
+     * @param worldCoord The townblock coordinate
+     */
+    public void invalidate(WorldCoord worldCoord) {
+        epoch.incrementAndGet();
+        heights.remove(worldCoord);
+    }
+
+    /**
+     * Forgets every cached height
+     */
+    public void clear() {
+        epoch.incrementAndGet();
+        heights.clear();
+    }
+
+    /**
+     * @return Number of cached heights
+     */
+    public int size() {
+        return heights.size();
+    }
+
+    @Override
+    public void plotListed(long key, UUID townUUID) {
+        // Heights are cached on first use rather than when a plot is listed
+    }
+
+    @Override
+    public void plotUnlisted(long key, UUID townUUID) {
+        heights.remove(new WorldCoord(index.getStore().worldName(key), PlotKey.x(key), PlotKey.z(key)));
+    }
+
+    @Override
+    public void indexRebuilt() {
+        heights.keySet().removeIf(worldCoord -> !isListed(worldCoord));
+    }
+
+    /**
+     * Caches a height if its plot is in the index
+     */
+    private void store(WorldCoord worldCoord, int height) {
+        if (!isListed(worldCoord)) {
+            return;
+        }
+
+        heights.put(worldCoord, height);
+        // The plot may have been unlisted in between, after its removal from the cache already ran
+        if (!isListed(worldCoord)) {
+            heights.remove(worldCoord);
+        }
+    }
+
+    private boolean isListed(WorldCoord worldCoord) {
+        PlotStore store = index.getStore();
+        int worldId = store.worldId(worldCoord.getWorldName());
+        return worldId != PlotStore.MISSING && store.contains(PlotKey.pack(worldId, worldCoord.getX(), worldCoord.getZ()));
+    }
+
+    /**
+     * Takes a heightmap snapshot of a loaded chunk on the thread owning its region, moving there first if needed
+     */
+    private CompletableFuture<ChunkSnapshot> snapshot(Chunk chunk) {
+        // Paper completes chunk futures on the main thread, which owns every region, so this rarely reschedules
+        if (Bukkit.isOwnedByCurrentRegion(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            return CompletableFuture.completedFuture(chunk.getChunkSnapshot(true, false, false));
+        }
+
+        CompletableFuture<ChunkSnapshot> snapshot = new CompletableFuture<>();
+        CatalogScheduler.runAtChunk(plugin, chunk.getWorld(), chunk.getX(), chunk.getZ(),
+                () -> snapshot.complete(chunk.getChunkSnapshot(true, false, false)));
+        return snapshot;
+    }
+
+    private static int readHeight(ChunkSnapshot snapshot, int blockX, int blockZ) {
+        return snapshot.getHighestBlockYAt(blockX & 15, blockZ & 15);
+    }
+}
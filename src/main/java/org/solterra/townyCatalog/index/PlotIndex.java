@@ -0,0 +1,472 @@
+package org.solterra.townyCatalog.index;
+
+import com.palmergames.bukkit.towny.TownyAPI;
+import com.palmergames.bukkit.towny.object.Town;
+import com.palmergames.bukkit.towny.object.TownBlock;
+import com.palmergames.bukkit.towny.object.TownBlockType;
+import com.palmergames.bukkit.towny.object.WorldCoord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Maintained index of every plot currently for sale, grouped by town
+ * Built once from Towny on startup and then kept up to date by {@link org.solterra.townyCatalog.listener.PlotIndexListener}
+ * Plot data is copied into a {@link PlotStore} when a plot is listed, so reads never go back to Towny
+ * A rebuild fills a fresh set of structures on the side and swaps them in at once, so readers on other threads see
+ * either the old index or the new one, never an empty or half-built one
+ */
+public class PlotIndex {
+
+    private volatile Contents contents = new Contents(new PlotStore());
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final List<Consumer<UUID>> changeListeners = new CopyOnWriteArrayList<>();
+    private final List<PlotChangeListener> plotListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Discards the current contents and rebuilds the index with a full scan of Towny's data
+     */
+    public void rebuild() {
+        rebuild(Map.of());
+    }
+
+    /**
+     * Discards the current contents and rebuilds the index, restoring towns from a saved snapshot where it still matches
+     * Restored towns are taken as saved without looking up their townblocks, and any town the snapshot is missing or
+     * no longer matches is scanned from Towny's data
+     *
+     * @param saved Towns from an {@link IndexSnapshot} by UUID, empty to scan every town
+     * @return UUIDs of the towns restored from the snapshot
+     */
+    public Set<UUID> rebuild(Map<UUID, IndexSnapshot.SavedTown> saved) {
+        Contents previous = contents;
+        // World ids are part of the plot keys views and caches hold on to, so they carry over to the new store
+        Contents next = new Contents(new PlotStore(previous.store));
+        Set<UUID> restored = new HashSet<>();
+
+        for (Town town : TownyAPI.getInstance().getTowns()) {
+            if (town.isRuined()) {
+                continue;
+            }
+
+            IndexSnapshot.SavedTown savedTown = saved.get(town.getUUID());
+            if (savedTown != null && savedTown.matches(town)) {
+                restore(next, town, savedTown);
+                restored.add(town.getUUID());
+            } else {
+                for (TownBlock townBlock : town.getTownBlocks()) {
+                    if (townBlock.isForSale()) {
+                        put(next, town, townBlock, System.currentTimeMillis());
+                    }
+                }
+            }
+            // Ranked once per town rather than on every plot
+            rank(next, town);
+        }
+
+        // Every town in either index moves to one new version, including towns that no longer have plots for sale
+        Set<UUID> changedTowns = new HashSet<>(previous.listings.keySet());
+        changedTowns.addAll(next.listings.keySet());
+        // The version only moves once the new contents are visible, so nothing derived from the old ones is tagged with it
+        long version = versionCounter.get() + 1;
+        for (UUID townUUID : changedTowns) {
+            next.townVersions.put(townUUID, version);
+        }
+        contents = next;
+        versionCounter.set(version);
+
+        for (UUID townUUID : changedTowns) {
+            for (Consumer<UUID> listener : changeListeners) {
+                listener.accept(townUUID);
+            }
+        }
+        for (PlotChangeListener listener : plotListeners) {
+            listener.indexRebuilt();
+        }
+        return restored;
+    }
+
+    /**
+     * Re-reads the townblock at a coordinate from Towny and adds, moves or removes it accordingly
+     *
+     * @param worldCoord The coordinate of the townblock that changed
+     */
+    public void refresh(WorldCoord worldCoord) {
+        Contents c = contents;
+        TownBlock townBlock = TownyAPI.getInstance().getTownBlock(worldCoord);
+        Town town = townBlock != null ? townBlock.getTownOrNull() : null;
+
+        if (town == null || town.isRuined() || !townBlock.isForSale()) {
+            remove(worldCoord);
+            return;
+        }
+
+        UUID previousTown = c.store.getTownUUID(keyOf(worldCoord));
+        if (previousTown != null && !previousTown.equals(town.getUUID())) {
+            remove(worldCoord);
+        }
+        put(c, town, townBlock, System.currentTimeMillis());
+        rank(c, town);
+        bumpVersion(c, town.getUUID());
+
+        // Announced here rather than in put, so the plots a rebuild adds are announced once through indexRebuilt
+        long key = keyOf(worldCoord);
+        for (PlotChangeListener listener : plotListeners) {
+            listener.plotListed(key, town.getUUID());
+        }
+    }
+
+    /**
+     * Compares every listed plot's custom name with Towny's and refreshes the plots renamed since they were listed
+     * Towny fires no event when a plot is renamed, so this runs with each periodic snapshot save instead; until then a
+     * renamed plot keeps its old name in the catalog
+     * Must be called on the main thread
+     *
+     * @return Number of plots refreshed
+     */
+    public int refreshRenamedPlots() {
+        Contents c = contents;
+        List<WorldCoord> renamed = new ArrayList<>();
+        for (TownListing listing : c.listings.values()) {
+            for (long key : listing.getKeys()) {
+                TownBlock townBlock = resolve(key);
+                if (townBlock == null || !townBlock.getName().equals(c.store.getPlotName(key))) {
+                    renamed.add(new WorldCoord(c.store.worldName(key), PlotKey.x(key), PlotKey.z(key)));
+                }
+            }
+        }
+
+        for (WorldCoord worldCoord : renamed) {
+            refresh(worldCoord);
+        }
+        return renamed.size();
+    }
+
+    /**
+     * Removes a townblock from the index
+     *
+     * @param worldCoord The coordinate of the townblock
+     */
+    public void remove(WorldCoord worldCoord) {
+        Contents c = contents;
+        long key = keyOf(worldCoord);
+        UUID townUUID = c.store.getTownUUID(key);
+        if (townUUID == null) {
+            return;
+        }
+
+        c.store.remove(key);
+        c.plotNames.remove(key);
+        c.grid.remove(key);
+        c.listings.computeIfPresent(townUUID, (uuid, listing) -> {
+            listing.remove(key);
+            return listing.isEmpty() ? null : listing;
+        });
+        if (!c.listings.containsKey(townUUID)) {
+            c.townNames.remove(townUUID);
+            c.ranking.remove(townUUID);
+        } else {
+            updateTown(townUUID);
+        }
+        bumpVersion(c, townUUID);
+        for (PlotChangeListener listener : plotListeners) {
+            listener.plotUnlisted(key, townUUID);
+        }
+    }
+
+    /**
+     * Removes every plot belonging to a town, used when a town is deleted or falls into ruin
+     *
+     * @param townUUID The UUID of the town
+     */
+    public void removeTown(UUID townUUID) {
+        Contents c = contents;
+        TownListing listing = c.listings.remove(townUUID);
+        long[] keys = listing != null ? listing.getKeys() : new long[0];
+        for (long key : keys) {
+            c.store.remove(key);
+            c.plotNames.remove(key);
+            c.grid.remove(key);
+        }
+        c.townNames.remove(townUUID);
+        c.ranking.remove(townUUID);
+        bumpVersion(c, townUUID);
+        for (long key : keys) {
+            for (PlotChangeListener listener : plotListeners) {
+                listener.plotUnlisted(key, townUUID);
+            }
+        }
+    }
+
+    /**
+     * Updates the town name stored with a town's plots
+     *
+     * @param townUUID The UUID of the town
+     * @param townName The town's new name
+     */
+    public void renameTown(UUID townUUID, String townName) {
+        Contents c = contents;
+        c.store.renameTown(townUUID, townName);
+        TownListing listing = c.listings.get(townUUID);
+        if (listing != null) {
+            c.townNames.put(townUUID, townName);
+            updateTown(townUUID);
+            // Catalog windows show the town's name in their header
+            bumpVersion(c, townUUID);
+
+            // Every plot carries the town's name, so each one changed
+            for (long key : listing.getKeys()) {
+                for (PlotChangeListener listener : plotListeners) {
+                    listener.plotListed(key, townUUID);
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-reads a town's population, claim count and open and public flags from Towny and moves it to its new place
+     * in the town orders
+     * Must be called on the main thread
+     *
+     * @param townUUID The UUID of the town
+     */
+    public void updateTown(UUID townUUID) {
+        Town town = TownyAPI.getInstance().getTown(townUUID);
+        if (town == null) {
+            return;
+        }
+
+        Contents c = contents;
+        boolean stateChanged = c.ranking.isOpen(townUUID) != town.isOpen()
+                || c.ranking.isPublic(townUUID) != town.isPublic()
+                || c.ranking.getPopulation(townUUID) != town.getNumResidents();
+        rank(c, town);
+        // Views filtering on open or public towns and headers showing the population have to redraw, though no plot changed
+        if (stateChanged && c.listings.containsKey(townUUID)) {
+            bumpVersion(c, townUUID);
+        }
+    }
+
+    /**
+     * Finds towns with plots for sale by the start of their name or, optionally, of one of their plots' custom names
+     * Case is ignored and underscores match spaces
+     *
+     * @param prefix        The search text
+     * @param withPlotNames true to also match custom plot names
+     * @return UUIDs of the matching towns, towns matched by name first
+     */
+    public Set<UUID> searchTowns(String prefix, boolean withPlotNames) {
+        Contents c = contents;
+        Set<UUID> matches = new LinkedHashSet<>(c.townNames.search(prefix));
+        if (withPlotNames) {
+            for (long key : c.plotNames.search(prefix)) {
+                UUID townUUID = c.store.getTownUUID(key);
+                if (townUUID != null) {
+                    matches.add(townUUID);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return UUIDs of every town with at least one plot for sale
+     */
+    public Set<UUID> getTownIds() {
+        return Collections.unmodifiableSet(contents.listings.keySet());
+    }
+
+    /**
+     * Gets a town's listing
+     *
+     * @param townUUID The UUID of the town
+     * @return The town's listing, or null if it has no plots for sale
+     */
+    public TownListing getListing(UUID townUUID) {
+        return contents.listings.get(townUUID);
+    }
+
+    /**
+     * Gets the plots for sale in a town
+     * Each plot is looked up in Towny, so this must be called on the main thread
+     *
+     * @param townUUID The UUID of the town
+     * @return The town's plots for sale from lowest to highest price, empty if it has none
+     */
+    public List<TownBlock> getPlots(UUID townUUID) {
+        TownListing listing = contents.listings.get(townUUID);
+        if (listing == null) {
+            return new ArrayList<>();
+        }
+
+        long[] keys = listing.getKeysByPrice();
+        List<TownBlock> plots = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            TownBlock townBlock = resolve(key);
+            if (townBlock != null) {
+                plots.add(townBlock);
+            }
+        }
+        return plots;
+    }
+
+    /**
+     * @return The store holding the data of every indexed plot
+     */
+    public PlotStore getStore() {
+        return contents.store;
+    }
+
+    /**
+     * @return The spatial grid over the coordinates of every indexed plot
+     */
+    public SpatialGrid getGrid() {
+        return contents.grid;
+    }
+
+    /**
+     * @return Every town with plots for sale, kept in order by each sort key
+     */
+    public TownRanking getRanking() {
+        return contents.ranking;
+    }
+
+    /**
+     * Gets the key for a townblock coordinate
+     *
+     * @param worldCoord The coordinate
+     * @return The packed key
+     */
+    public long keyOf(WorldCoord worldCoord) {
+        return contents.store.keyOf(worldCoord.getWorldName(), worldCoord.getX(), worldCoord.getZ());
+    }
+
+    /**
+     * Looks up the Towny townblock for a key, must be called on the main thread
+     *
+     * @param key The plot's packed key
+     * @return The townblock, or null if the coordinate is no longer claimed
+     */
+    public TownBlock resolve(long key) {
+        return TownyAPI.getInstance().getTownBlock(new WorldCoord(contents.store.worldName(key), PlotKey.x(key), PlotKey.z(key)));
+    }
+
+    /**
+     * Gets the version of the whole index, the newest of every town's version
+     * Any change to any town's plots for sale moves it forward, so a value derived from the whole index is
+     * still current for as long as this matches
+     *
+     * @return The index's current version
+     */
+    public long getVersion() {
+        return versionCounter.get();
+    }
+
+    /**
+     * Gets the version of a town's plots for sale, which changes whenever a plot is listed, re-priced or unlisted
+     * Versions are never reused, so a cached value computed at one version is valid for as long as it matches
+     *
+     * @param townUUID The UUID of the town
+     * @return The town's current version
+     */
+    public long getTownVersion(UUID townUUID) {
+        return contents.townVersions.getOrDefault(townUUID, 0L);
+    }
+
+    /**
+     * Registers a callback run whenever a town's plots for sale change, on the thread making the change
+     *
+     * @param listener Receives the UUID of the changed town
+     */
+    public void addChangeListener(Consumer<UUID> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Registers a callback run for every individual plot change, on the thread making the change
+     *
+     * @param listener Receives each listed, updated and unlisted plot
+     */
+    public void addPlotListener(PlotChangeListener listener) {
+        plotListeners.add(listener);
+    }
+
+    /**
+     * @return Total number of plots for sale across all towns
+     */
+    public int size() {
+        return contents.store.size();
+    }
+
+    private void put(Contents c, Town town, TownBlock townBlock, long listedAt) {
+        TownBlockType type = townBlock.getType();
+        put(c, town, c.store.keyOf(townBlock.getWorldCoord().getWorldName(), townBlock.getWorldCoord().getX(),
+                        townBlock.getWorldCoord().getZ()), townBlock.getPlotPrice(), type.getName(), townBlock.getName(),
+                type.equals(TownBlockType.RESIDENTIAL), listedAt);
+    }
+
+    private void put(Contents c, Town town, long key, double askingPrice, String typeName, String plotName,
+                     boolean residential, long listedAt) {
+        // Kept as whole cents everywhere, so price filters agree whichever structure a query reads
+        double price = PlotStore.toCents(askingPrice) / 100.0;
+        boolean listed = c.store.contains(key);
+        c.store.put(key, town.getUUID(), town.getName(), price, typeName, plotName, residential);
+        if (!listed) {
+            c.grid.add(key);
+        }
+        c.listings.computeIfAbsent(town.getUUID(), uuid -> new TownListing()).put(key, price, residential, listedAt);
+        c.townNames.put(town.getUUID(), town.getName());
+        c.plotNames.put(key, plotName);
+    }
+
+    private void restore(Contents c, Town town, IndexSnapshot.SavedTown savedTown) {
+        // Plots are visited oldest first, so the town's listing order is rebuilt as it was; the town's current name
+        // is used in case it was renamed while the plugin was not running
+        savedTown.forEachPlot((worldName, x, z, price, typeName, plotName, residential, listedAt) ->
+                put(c, town, c.store.keyOf(worldName, x, z), price, typeName, plotName, residential, listedAt));
+    }
+
+    private static void rank(Contents c, Town town) {
+        TownListing listing = c.listings.get(town.getUUID());
+        if (listing == null) {
+            c.ranking.remove(town.getUUID());
+            return;
+        }
+        c.ranking.update(town.getUUID(), town.getName(), town.getNumResidents(), town.getNumTownBlocks(),
+                listing.getMinPrice(), listing.getNewestListing(), town.isOpen(), town.isPublic());
+    }
+
+    private void bumpVersion(Contents c, UUID townUUID) {
+        c.townVersions.put(townUUID, versionCounter.incrementAndGet());
+        for (Consumer<UUID> listener : changeListeners) {
+            listener.accept(townUUID);
+        }
+    }
+
+    /**
+     * Every structure the index is made of, replaced as a whole by a rebuild
+     */
+    private static final class Contents {
+        private final Map<UUID, TownListing> listings = new ConcurrentHashMap<>();
+        private final PlotStore store;
+        private final NamePrefixIndex<UUID> townNames = new NamePrefixIndex<>();
+        private final NamePrefixIndex<Long> plotNames = new NamePrefixIndex<>();
+        private final SpatialGrid grid = new SpatialGrid();
+        private final TownRanking ranking = new TownRanking();
+        private final Map<UUID, Long> townVersions = new ConcurrentHashMap<>();
+
+        private Contents(PlotStore store) {
+            this.store = store;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.solterra.townyCatalog.index;
+
+/**
+ * Packs a townblock's world id and coordinates into a single long
+ * Layout: 16 bits world id, 24 bits townblock X, 24 bits townblock Z, with X and Z stored as two's complement
+ */
+public final class PlotKey {
+
+    private static final int COORD_BITS = 24;
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+
+    /**
+     * Never produced by {@link #pack}, as world ids are below 32768
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private PlotKey() {
+    }
+
+    /**
+     * @param worldId The interned world id
+     * @param x       Townblock X
+     * @param z       Townblock Z
+     * @return The packed key
+     */
+    public static long pack(int worldId, int x, int z) {
+        return ((long) worldId << (COORD_BITS * 2))
+                | ((x & COORD_MASK) << COORD_BITS)
+                | (z & COORD_MASK);
+    }
+
+    public static int worldId(long key) {
+        return (int) (key >>> (COORD_BITS * 2));
+    }
+
+    public static int x(long key) {
+        // Move the field to the top of an int, then shift back arithmetically to sign-extend it
+        return ((int) (key >>> (COORD_BITS - 8))) >> 8;
+    }
+
+    public static int z(long key) {
+        return ((int) (key << 8)) >> 8;
+    }
+}
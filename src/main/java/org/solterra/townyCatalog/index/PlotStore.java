@@ -0,0 +1,314 @@
+package org.solterra.townyCatalog.index;
+
+import org.solterra.townyCatalog.model.PlotInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Struct-of-arrays store of every plot for sale, addressed by packed {@link PlotKey}
+ * Each plot is a row across primitive columns; towns, worlds, plot types and plot names are interned to ids
+ * so a row costs a few dozen bytes instead of a graph of Towny objects
+ * Towns, types and names are counted per row and freed with their last row, so renames and removals don't pile up;
+ * world ids are part of plot keys and are kept for good
+ * All methods are synchronized so rows can be read from worker threads while the main thread updates them
+ */
+public class PlotStore {
+
+    public static final int MISSING = -1;
+
+    // Type ids are stored as unsigned shorts
+    private static final int MAX_TYPES = 1 << 16;
+
+    private final LongIntOpenMap rowsByKey = new LongIntOpenMap(1024, MISSING);
+    private final StringPool worlds = new StringPool();
+    private final StringPool types = new StringPool();
+    private final StringPool names = new StringPool();
+    private final Map<UUID, Integer> townIds = new HashMap<>();
+    private final List<UUID> townUUIDs = new ArrayList<>();
+    private final List<String> townNames = new ArrayList<>();
+    private int[] townRows = new int[64];
+    private int[] freeTownIds = new int[16];
+    private int freeTownCount;
+
+    private long[] keys = new long[1024];
+    private int[] towns = new int[1024];
+    private long[] priceCents = new long[1024];
+    private short[] typeIds = new short[1024];
+    private int[] nameIds = new int[1024];
+    private boolean[] residential = new boolean[1024];
+
+    private int[] freeRows = new int[64];
+    private int freeCount;
+    private int rowCount;
+
+    public PlotStore() {
+    }
+
+    /**
+     * Creates an empty store that keeps another store's world ids, so plot keys made by either one stay interchangeable
+     *
+     * @param previous The store whose world ids to keep
+     */
+    public PlotStore(PlotStore previous) {
+        synchronized (previous) {
+            for (int id = 0; id < previous.worlds.capacity(); id++) {
+                worlds.intern(previous.worlds.get(id));
+            }
+        }
+    }
+
+    /**
+     * Gets the key for a townblock coordinate, interning the world name
+     *
+     * @param worldName The world name
+     * @param x         Townblock X
+     * @param z         Townblock Z
+     * @return The packed key
+     */
+    public synchronized long keyOf(String worldName, int x, int z) {
+        return PlotKey.pack(worlds.intern(worldName), x, z);
+    }
+
+    /**
+     * Looks up a world's id without interning it, so names from outside the index can't grow the pool
+     *
+     * @param worldName The world name
+     * @return The world's interned id, or {@link #MISSING} if no plot was ever indexed in it
+     */
+    public synchronized int worldId(String worldName) {
+        return worlds.find(worldName);
+    }
+
+    /**
+     * Inserts or updates a plot
+     *
+     * @param key         The plot's packed key
+     * @param townUUID    The owning town
+     * @param townName    The owning town's current name
+     * @param price       The asking price
+     * @param typeName    The plot type name
+     * @param plotName    The custom plot name, empty if none
+     * @param isResidential true if the plot is a residential plot
+     */
+    public synchronized void put(long key, UUID townUUID, String townName, double price, String typeName,
+                                 String plotName, boolean isResidential) {
+        int typeId = types.acquire(typeName);
+        if (typeId >= MAX_TYPES) {
+            types.release(typeId);
+            throw new IllegalStateException("More than " + MAX_TYPES + " plot types, can't index type " + typeName);
+        }
+
+        // The new values are acquired before the old ones are released, so a value the row keeps is never freed
+        int townId = acquireTown(townUUID, townName);
+        int nameId = names.acquire(plotName != null ? plotName : "");
+        int row = rowsByKey.get(key);
+        if (row == MISSING) {
+            row = allocateRow();
+            rowsByKey.put(key, row);
+        } else {
+            releaseRow(row);
+        }
+
+        keys[row] = key;
+        towns[row] = townId;
+        priceCents[row] = toCents(price);
+        typeIds[row] = (short) typeId;
+        nameIds[row] = nameId;
+        residential[row] = isResidential;
+    }
+
+    /**
+     * Rounds a price to the whole cents the store keeps, so every filter compares the same value
+     *
+     * @param price The price
+     * @return The price in cents
+     */
+    public static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    /**
+     * Removes a plot
+     *
+     * @param key The plot's packed key
+     * @return true if the plot was present
+     */
+    public synchronized boolean remove(long key) {
+        int row = rowsByKey.remove(key);
+        if (row == MISSING) {
+            return false;
+        }
+
+        releaseRow(row);
+        keys[row] = PlotKey.NONE;
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        }
+        freeRows[freeCount++] = row;
+        return true;
+    }
+
+    /**
+     * @param key The plot's packed key
+     * @return true if the plot is in the store
+     */
+    public synchronized boolean contains(long key) {
+        return rowsByKey.containsKey(key);
+    }
+
+    /**
+     * Reads a plot's row into a display object
+     *
+     * @param key      The plot's packed key
+     * @param withName false to leave out the plot's custom name
+     * @return PlotInfo for the plot, or null if it is not in the store
+     */
+    public synchronized PlotInfo describe(long key, boolean withName) {
+        int row = rowsByKey.get(key);
+        if (row == MISSING) {
+            return null;
+        }
+
+        return new PlotInfo(key, withName ? names.get(nameIds[row]) : "", townNames.get(towns[row]), priceCents[row] / 100.0,
+                types.get(typeIds[row] & 0xFFFF), PlotKey.x(key), PlotKey.z(key), worlds.get(PlotKey.worldId(key)));
+    }
+
+    /**
+     * @param key The plot's packed key
+     * @return UUID of the town selling the plot, or null if it is not in the store
+     */
+    public synchronized UUID getTownUUID(long key) {
+        int row = rowsByKey.get(key);
+        return row != MISSING ? townUUIDs.get(towns[row]) : null;
+    }
+
+    /**
+     * @param key The plot's packed key
+     * @return The plot's price in cents, or -1 if it is not in the store
+     */
+    public synchronized long getPriceCents(long key) {
+        int row = rowsByKey.get(key);
+        return row != MISSING ? priceCents[row] : -1;
+    }
+
+    /**
+     * @param key The plot's packed key
+     * @return true if the plot is in the store and residential
+     */
+    public synchronized boolean isResidential(long key) {
+        int row = rowsByKey.get(key);
+        return row != MISSING && residential[row];
+    }
+
+    /**
+     * @param key The plot's packed key
+     * @return The plot type name, or null if it is not in the store
+     */
+    public synchronized String getTypeName(long key) {
+        int row = rowsByKey.get(key);
+        return row != MISSING ? types.get(typeIds[row] & 0xFFFF) : null;
+    }
+
+    /**
+     * @param key The plot's packed key
+     * @return The custom plot name, empty if none, or null if it is not in the store
+     */
+    public synchronized String getPlotName(long key) {
+        int row = rowsByKey.get(key);
+        return row != MISSING ? names.get(nameIds[row]) : null;
+    }
+
+    /**
+     * @param key The plot's packed key
+     * @return The world name of the key
+     */
+    public synchronized String worldName(long key) {
+        return worlds.get(PlotKey.worldId(key));
+    }
+
+    /**
+     * @return Number of plots in the store
+     */
+    public synchronized int size() {
+        return rowsByKey.size();
+    }
+
+    /**
+     * Updates the name shown for a town's plots
+     *
+     * @param townUUID The town
+     * @param townName The town's new name
+     */
+    public synchronized void renameTown(UUID townUUID, String townName) {
+        Integer id = townIds.get(townUUID);
+        if (id != null) {
+            townNames.set(id, townName);
+        }
+    }
+
+    private int acquireTown(UUID townUUID, String townName) {
+        Integer id = townIds.get(townUUID);
+        if (id == null) {
+            if (freeTownCount > 0) {
+                id = freeTownIds[--freeTownCount];
+                townUUIDs.set(id, townUUID);
+                townNames.set(id, townName);
+            } else {
+                id = townUUIDs.size();
+                townUUIDs.add(townUUID);
+                townNames.add(townName);
+                if (id == townRows.length) {
+                    townRows = Arrays.copyOf(townRows, id * 2);
+                }
+            }
+            townIds.put(townUUID, id);
+        } else {
+            // Towns can be renamed, the latest name wins
+            townNames.set(id, townName);
+        }
+        townRows[id]++;
+        return id;
+    }
+
+    /**
+     * Drops the row's references to its town, type and name
+     */
+    private void releaseRow(int row) {
+        types.release(typeIds[row] & 0xFFFF);
+        names.release(nameIds[row]);
+
+        int townId = towns[row];
+        if (--townRows[townId] == 0) {
+            townIds.remove(townUUIDs.get(townId));
+            townUUIDs.set(townId, null);
+            townNames.set(townId, null);
+            if (freeTownCount == freeTownIds.length) {
+                freeTownIds = Arrays.copyOf(freeTownIds, freeTownCount * 2);
+            }
+            freeTownIds[freeTownCount++] = townId;
+        }
+    }
+
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+
+        if (rowCount == keys.length) {
+            int capacity = rowCount * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            towns = Arrays.copyOf(towns, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            typeIds = Arrays.copyOf(typeIds, capacity);
+            nameIds = Arrays.copyOf(nameIds, capacity);
+            residential = Arrays.copyOf(residential, capacity);
+        }
+        return rowCount++;
+    }
+
+}
@@ -0,0 +1,368 @@
+package org.solterra.townyCatalog.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * One window of plots selected from a larger ordered result, along with the size of the whole result
+ * Price and listing windows are found by merging the sorted orders of town listings and stopping at the window's end,
+ * instead of collecting and sorting every matching plot
+ */
+public class PlotWindow {
+
+    private final long[] keys;
+    private final int total;
+
+    private PlotWindow(long[] keys, int total) {
+        this.keys = keys;
+        this.total = total;
+    }
+
+    /**
+     * Slices a window out of an already ordered result
+     *
+     * @param ordered The first plots of the result in order, at least up to the window's end where available
+     * @param total   Number of plots in the whole result
+     * @param offset  Number of plots to skip
+     * @param limit   Maximum number of plots in the window
+     * @return The window
+     */
+    public static PlotWindow slice(long[] ordered, int total, int offset, int limit) {
+        int from = Math.min(offset, ordered.length);
+        int to = (int) Math.min(ordered.length, (long) offset + limit);
+        return new PlotWindow(Arrays.copyOfRange(ordered, from, to), total);
+    }
+
+    /**
+     * Selects a window of the plots matching a price range and type filter, in price order
+     *
+     * @param orders          Price orders of the towns to search
+     * @param minPrice        Lowest accepted price
+     * @param maxPrice        Highest accepted price
+     * @param residentialOnly true to only include residential plots
+     * @param ascending       true for lowest to highest, false for highest to lowest
+     * @param offset          Number of matching plots to skip
+     * @param limit           Maximum number of plots in the window
+     * @return The window's keys and the total number of matching plots
+     */
+    public static PlotWindow select(List<TownListing.PriceOrder> orders, double minPrice, double maxPrice,
+                                     boolean residentialOnly, boolean ascending, int offset, int limit) {
+        Comparator<Cursor> byPrice = Comparator.comparingDouble(Cursor::price);
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, orders.size()), ascending ? byPrice : byPrice.reversed());
+
+        int total = 0;
+        for (TownListing.PriceOrder order : orders) {
+            // The accepted price range is a contiguous run of each sorted listing
+            int from = TownListing.countBelow(order.getPrices(), minPrice);
+            int to = TownListing.countAtOrBelow(order.getPrices(), maxPrice);
+            if (from >= to) {
+                continue;
+            }
+
+            total += residentialOnly ? countResidential(order, from, to) : to - from;
+            Cursor cursor = ascending ? new Cursor(order, from, to, 1) : new Cursor(order, to - 1, from - 1, -1);
+            if (cursor.seek(residentialOnly)) {
+                heap.add(cursor);
+            }
+        }
+
+        int size = (int) Math.max(0, Math.min((long) limit, (long) total - offset));
+        long[] keys = new long[size];
+        if (size == 0) {
+            return new PlotWindow(keys, total);
+        }
+
+        // A single town without a type filter is a plain slice of its listing
+        if (heap.size() == 1 && !residentialOnly) {
+            Cursor cursor = heap.poll();
+            for (int i = 0; i < size; i++) {
+                keys[i] = cursor.order.getKeys()[cursor.position + (offset + i) * cursor.step];
+            }
+            return new PlotWindow(keys, total);
+        }
+
+        // Merge the towns in price order, skipping up to the offset
+        int count = 0;
+        for (int skipped = 0; count < size && !heap.isEmpty(); ) {
+            Cursor cursor = heap.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                keys[count++] = cursor.key();
+            }
+
+            cursor.position += cursor.step;
+            if (cursor.seek(residentialOnly)) {
+                heap.add(cursor);
+            }
+        }
+        return new PlotWindow(keys, total);
+    }
+
+    /**
+     * Selects a window of the plots matching a price range and type filter, in the order they were listed
+     *
+     * @param orders          Listing orders of the towns to search
+     * @param minPrice        Lowest accepted price
+     * @param maxPrice        Highest accepted price
+     * @param residentialOnly true to only include residential plots
+     * @param newestFirst     true for newest to oldest, false for oldest to newest
+     * @param offset          Number of matching plots to skip
+     * @param limit           Maximum number of plots in the window
+     * @return The window's keys and the total number of matching plots
+     */
+    public static PlotWindow selectByListing(List<TownListing.ListingOrder> orders, double minPrice, double maxPrice,
+                                              boolean residentialOnly, boolean newestFirst, int offset, int limit) {
+        Comparator<ListingCursor> byTime = Comparator.comparingLong(ListingCursor::listedAt);
+        PriorityQueue<ListingCursor> heap = new PriorityQueue<>(Math.max(1, orders.size()),
+                newestFirst ? byTime.reversed() : byTime);
+
+        // Prices are not sorted in listing order, so every plot is checked for the total
+        int total = 0;
+        for (TownListing.ListingOrder order : orders) {
+            for (int i = 0; i < order.size(); i++) {
+                if (accepts(order.getPrices()[i], order.getResidential()[i], minPrice, maxPrice, residentialOnly)) {
+                    total++;
+                }
+            }
+
+            ListingCursor cursor = newestFirst
+                    ? new ListingCursor(order, order.size() - 1, -1, -1)
+                    : new ListingCursor(order, 0, order.size(), 1);
+            if (cursor.seek(minPrice, maxPrice, residentialOnly)) {
+                heap.add(cursor);
+            }
+        }
+
+        int size = (int) Math.max(0, Math.min((long) limit, (long) total - offset));
+        long[] keys = new long[size];
+
+        // Merge the towns in listing order, skipping up to the offset
+        int count = 0;
+        for (int skipped = 0; count < size && !heap.isEmpty(); ) {
+            ListingCursor cursor = heap.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                keys[count++] = cursor.order.getKeys()[cursor.position];
+            }
+
+            cursor.position += cursor.step;
+            if (cursor.seek(minPrice, maxPrice, residentialOnly)) {
+                heap.add(cursor);
+            }
+        }
+        return new PlotWindow(keys, total);
+    }
+
+    /**
+     * Selects a window of the matching plots from unsorted columns, ordering only the plots up to the window's end
+     * Keeps the best {@code offset + limit} plots in a bounded heap, so the cost is O(n log k) rather than a full sort
+     * Any per-plot value can stand in for the price, such as a distance
+     *
+     * @param keys            Plot keys
+     * @param prices          Prices parallel to the keys
+     * @param residential     Residential flags parallel to the keys
+     * @param size            Number of plots in the columns
+     * @param minPrice        Lowest accepted price
+     * @param maxPrice        Highest accepted price
+     * @param residentialOnly true to only include residential plots
+     * @param ascending       true for lowest to highest, false for highest to lowest
+     * @param offset          Number of matching plots to skip
+     * @param limit           Maximum number of plots in the window
+     * @return The window's keys and the total number of matching plots
+     */
+    public static PlotWindow selectUnsorted(long[] keys, double[] prices, boolean[] residential, int size,
+                                             double minPrice, double maxPrice, boolean residentialOnly,
+                                             boolean ascending, int offset, int limit) {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            if (accepts(prices[i], residential[i], minPrice, maxPrice, residentialOnly)) {
+                total++;
+            }
+        }
+
+        int windowSize = (int) Math.max(0, Math.min((long) limit, (long) total - offset));
+        if (windowSize == 0) {
+            return new PlotWindow(new long[0], total);
+        }
+
+        // The heap's root is the plot that sorts last, so it is the one evicted by a better plot
+        int capacity = offset + windowSize;
+        int[] heap = new int[capacity];
+        int heapSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (!accepts(prices[i], residential[i], minPrice, maxPrice, residentialOnly)) {
+                continue;
+            }
+
+            if (heapSize < capacity) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, prices, ascending);
+            } else if (before(prices, i, heap[0], ascending)) {
+                heap[0] = i;
+                siftDown(heap, heapSize, prices, ascending);
+            }
+        }
+
+        // Popping yields plots from last to first, the window is the tail of what was kept
+        long[] window = new long[windowSize];
+        for (int position = capacity - 1; position >= offset; position--) {
+            window[position - offset] = keys[heap[0]];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, prices, ascending);
+        }
+        return new PlotWindow(window, total);
+    }
+
+    private static boolean accepts(double price, boolean isResidential, double minPrice, double maxPrice,
+                                   boolean residentialOnly) {
+        return price >= minPrice && price <= maxPrice && (!residentialOnly || isResidential);
+    }
+
+    /**
+     * @return true if plot a sorts before plot b; ties keep slot order, as the full sort does
+     */
+    private static boolean before(double[] prices, int a, int b, boolean ascending) {
+        int compare = Double.compare(prices[a], prices[b]);
+        if (compare == 0) {
+            compare = Integer.compare(a, b);
+        }
+        return ascending ? compare < 0 : compare > 0;
+    }
+
+    private static void siftUp(int[] heap, int index, double[] prices, boolean ascending) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(prices, heap[parent], heap[index], ascending)) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int heapSize, double[] prices, boolean ascending) {
+        int index = 0;
+        while (true) {
+            int last = index;
+            int left = index * 2 + 1;
+            int right = left + 1;
+            if (left < heapSize && before(prices, heap[last], heap[left], ascending)) {
+                last = left;
+            }
+            if (right < heapSize && before(prices, heap[last], heap[right], ascending)) {
+                last = right;
+            }
+            if (last == index) {
+                return;
+            }
+            swap(heap, index, last);
+            index = last;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int value = heap[a];
+        heap[a] = heap[b];
+        heap[b] = value;
+    }
+
+    private static int countResidential(TownListing.PriceOrder order, int from, int to) {
+        boolean[] residential = order.getResidential();
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (residential[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Keys of the plots in the window, in the requested order
+     */
+    public long[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return Number of matching plots across all pages
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Position within one town's price order, walking in either direction
+     */
+    private static class Cursor {
+        private final TownListing.PriceOrder order;
+        private final int end;
+        private final int step;
+        private int position;
+
+        private Cursor(TownListing.PriceOrder order, int position, int end, int step) {
+            this.order = order;
+            this.position = position;
+            this.end = end;
+            this.step = step;
+        }
+
+        /**
+         * Moves forward to the next accepted plot
+         *
+         * @return false if the cursor ran out of plots
+         */
+        private boolean seek(boolean residentialOnly) {
+            while (position != end && residentialOnly && !order.getResidential()[position]) {
+                position += step;
+            }
+            return position != end;
+        }
+
+        private double price() {
+            return order.getPrices()[position];
+        }
+
+        private long key() {
+            return order.getKeys()[position];
+        }
+    }
+
+    /**
+     * Position within one town's listing order, walking in either direction
+     */
+    private static class ListingCursor {
+        private final TownListing.ListingOrder order;
+        private final int end;
+        private final int step;
+        private int position;
+
+        private ListingCursor(TownListing.ListingOrder order, int position, int end, int step) {
+            this.order = order;
+            this.position = position;
+            this.end = end;
+            this.step = step;
+        }
+
+        /**
+         * Moves forward to the next accepted plot
+         *
+         * @return false if the cursor ran out of plots
+         */
+        private boolean seek(double minPrice, double maxPrice, boolean residentialOnly) {
+            while (position != end && !accepts(order.getPrices()[position], order.getResidential()[position],
+                    minPrice, maxPrice, residentialOnly)) {
+                position += step;
+            }
+            return position != end;
+        }
+
+        private long listedAt() {
+            return order.getListedAt()[position];
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.solterra.townyCatalog.index;
+
+import org.solterra.townyCatalog.model.PriceStats;
+
+import java.util.Arrays;
+
+/**
+ * Sorted multiset of prices backed by a primitive array, with a running sum
+ * Adds and removes are a binary search plus an array shift, which is cheap at the size of a town's listing
+ * Not thread-safe; callers synchronize externally
+ */
+public class PriceMultiset {
+
+    private double[] prices = new double[8];
+    private int size;
+    private double sum;
+
+    /**
+     * Adds a price
+     *
+     * @param price The price to add
+     */
+    public void add(double price) {
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+        }
+
+        int index = countAtOrBelow(price);
+        System.arraycopy(prices, index, prices, index + 1, size - index);
+        prices[index] = price;
+        size++;
+        sum += price;
+    }
+
+    /**
+     * Removes one occurrence of a price
+     *
+     * @param price The price to remove
+     * @return true if the price was present
+     */
+    public boolean remove(double price) {
+        int index = Arrays.binarySearch(prices, 0, size, price);
+        if (index < 0) {
+            return false;
+        }
+
+        System.arraycopy(prices, index + 1, prices, index, size - index - 1);
+        size--;
+        // Reset rather than subtract on empty so rounding errors cannot accumulate forever
+        sum = size == 0 ? 0.0 : sum - price;
+        return true;
+    }
+
+    /**
+     * @return Number of prices
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Sum of all prices
+     */
+    public double sum() {
+        return sum;
+    }
+
+    /**
+     * @return The lowest price, or positive infinity if empty
+     */
+    public double min() {
+        return size > 0 ? prices[0] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return The highest price, or negative infinity if empty
+     */
+    public double max() {
+        return size > 0 ? prices[size - 1] : Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * @param balance The balance to compare against
+     * @return Number of prices at or below the balance
+     */
+    public int countAtOrBelow(double balance) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] <= balance) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Computes the aggregates of every price at or below a balance
+     * Count, min and max are a binary search; the sum is only walked when the balance actually cuts the set
+     *
+     * @param balance The balance to compare against, positive infinity for all prices
+     * @return Aggregates of the matching prices
+     */
+    public PriceStats stats(double balance) {
+        int count = countAtOrBelow(balance);
+        if (count == 0) {
+            return PriceStats.EMPTY;
+        }
+
+        double matchingSum = sum;
+        if (count < size) {
+            matchingSum = 0.0;
+            for (int i = 0; i < count; i++) {
+                matchingSum += prices[i];
+            }
+        }
+        return new PriceStats(count, prices[0], prices[count - 1], matchingSum);
+    }
+}
@@ -0,0 +1,354 @@
+package org.solterra.townyCatalog.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * Uniform grid over the coordinates of every plot for sale, for nearest and radius queries
+ * Each cell covers {@link #CELL_SIZE} by {@link #CELL_SIZE} townblocks of one world and holds the packed keys inside it;
+ * a nearest query walks rings of cells outwards from the origin and stops once no unvisited cell can hold a closer plot
+ * Distances are measured in townblocks between plot centers
+ * All methods are synchronized so queries can run on worker threads while the main thread updates plots
+ */
+public class SpatialGrid {
+
+    private static final int CELL_SHIFT = 3;
+    public static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private final LongIntOpenMap cellIds = new LongIntOpenMap(256, PlotStore.MISSING);
+    private final List<Cell> cells = new ArrayList<>();
+    private final Map<Integer, int[]> worldBounds = new HashMap<>();
+
+    /**
+     * Adds a plot, which must not already be in the grid
+     *
+     * @param key The plot's packed key
+     */
+    public synchronized void add(long key) {
+        int worldId = PlotKey.worldId(key);
+        int cellX = PlotKey.x(key) >> CELL_SHIFT;
+        int cellZ = PlotKey.z(key) >> CELL_SHIFT;
+        long cellKey = PlotKey.pack(worldId, cellX, cellZ);
+
+        int id = cellIds.get(cellKey);
+        if (id == PlotStore.MISSING) {
+            id = cells.size();
+            cells.add(new Cell(worldId));
+            cellIds.put(cellKey, id);
+            expandBounds(worldId, cellX, cellZ);
+        }
+        cells.get(id).add(key);
+    }
+
+    /**
+     * Removes a plot
+     *
+     * @param key The plot's packed key
+     */
+    public synchronized void remove(long key) {
+        long cellKey = PlotKey.pack(PlotKey.worldId(key), PlotKey.x(key) >> CELL_SHIFT, PlotKey.z(key) >> CELL_SHIFT);
+        int id = cellIds.get(cellKey);
+        if (id != PlotStore.MISSING) {
+            cells.get(id).remove(key);
+        }
+    }
+
+    /**
+     * Removes every plot
+     */
+    public synchronized void clear() {
+        cellIds.clear();
+        cells.clear();
+        worldBounds.clear();
+    }
+
+    /**
+     * Finds the plots closest to a point, nearest first
+     *
+     * @param worldId     The interned world id
+     * @param x           Townblock X of the point, fractional
+     * @param z           Townblock Z of the point, fractional
+     * @param count       Maximum number of plots to return
+     * @param maxDistance Only include plots within this distance, positive infinity for any distance
+     * @param filter      Accepts the plots that may be returned
+     * @return Keys of up to count matching plots in ascending distance
+     */
+    public synchronized long[] nearest(int worldId, double x, double z, int count, double maxDistance,
+                                       LongPredicate filter) {
+        int[] bounds = worldBounds.get(worldId);
+        if (bounds == null || count <= 0 || !Double.isFinite(x) || !Double.isFinite(z)) {
+            return new long[0];
+        }
+
+        NearestHeap heap = new NearestHeap(count);
+        long originX = cellOf(x);
+        long originZ = cellOf(z);
+        // Rings closer than the nearest edge of the claimed area are empty, and cells outside it are never probed,
+        // so a point far from every plot costs no more than one near them
+        long firstRing = Math.max(Math.max(bounds[0] - originX, originX - bounds[1]),
+                Math.max(bounds[2] - originZ, originZ - bounds[3]));
+        firstRing = Math.max(0, firstRing);
+        long lastRing = Math.max(Math.max(originX - bounds[0], bounds[1] - originX),
+                Math.max(originZ - bounds[2], bounds[3] - originZ));
+
+        for (long ring = firstRing; ring <= lastRing; ring++) {
+            // Every cell on this ring is at least this far from the point
+            double ringDistance = Math.max(0, ring - 1) * (double) CELL_SIZE;
+            if (ringDistance > maxDistance || (heap.isFull() && ringDistance > heap.worstDistance())) {
+                break;
+            }
+
+            long minZ = originZ - ring;
+            long maxZ = originZ + ring;
+            int fromX = (int) Math.max(bounds[0], originX - ring);
+            int toX = (int) Math.min(bounds[1], originX + ring);
+            int fromZ = (int) Math.max(bounds[2], minZ);
+            int toZ = (int) Math.min(bounds[3], maxZ);
+            for (int cellX = fromX; cellX <= toX; cellX++) {
+                if (cellX == originX - ring || cellX == originX + ring) {
+                    // Edge columns hold a whole side of the ring
+                    for (int cellZ = fromZ; cellZ <= toZ; cellZ++) {
+                        offer(heap, worldId, cellX, cellZ, bounds, x, z, maxDistance, filter);
+                    }
+                } else {
+                    // Inner columns only cross the ring at its top and bottom rows
+                    if (minZ >= bounds[2]) {
+                        offer(heap, worldId, cellX, (int) minZ, bounds, x, z, maxDistance, filter);
+                    }
+                    if (maxZ <= bounds[3] && maxZ != minZ) {
+                        offer(heap, worldId, cellX, (int) maxZ, bounds, x, z, maxDistance, filter);
+                    }
+                }
+            }
+        }
+        return heap.drainSorted();
+    }
+
+    /**
+     * Counts the plots within a distance of a point
+     *
+     * @param worldId     The interned world id
+     * @param x           Townblock X of the point, fractional
+     * @param z           Townblock Z of the point, fractional
+     * @param maxDistance Only count plots within this distance, positive infinity for the whole world
+     * @param filter      Accepts the plots to count
+     * @return Number of matching plots
+     */
+    public synchronized int count(int worldId, double x, double z, double maxDistance, LongPredicate filter) {
+        int[] bounds = worldBounds.get(worldId);
+        if (bounds == null || !Double.isFinite(x) || !Double.isFinite(z)) {
+            return 0;
+        }
+
+        int total = 0;
+        if (Double.isInfinite(maxDistance)) {
+            for (Cell cell : cells) {
+                if (cell.worldId == worldId) {
+                    total += cell.count(x, z, maxDistance, filter);
+                }
+            }
+            return total;
+        }
+
+        // Radii reaching past the claimed area are clamped to its far edge, so huge radii can't overflow
+        long originX = cellOf(x);
+        long originZ = cellOf(z);
+        long farthest = Math.max(Math.max(originX - bounds[0], bounds[1] - originX),
+                Math.max(originZ - bounds[2], bounds[3] - originZ));
+        long cellRadius = (long) Math.min(Math.ceil(maxDistance / CELL_SIZE), farthest) + 1;
+        long fromX = Math.max(bounds[0], originX - cellRadius);
+        long toX = Math.min(bounds[1], originX + cellRadius);
+        long fromZ = Math.max(bounds[2], originZ - cellRadius);
+        long toZ = Math.min(bounds[3], originZ + cellRadius);
+        if (fromX > toX || fromZ > toZ) {
+            return 0;
+        }
+
+        for (int cellX = (int) fromX; cellX <= toX; cellX++) {
+            for (int cellZ = (int) fromZ; cellZ <= toZ; cellZ++) {
+                Cell cell = cellAt(worldId, cellX, cellZ, bounds);
+                if (cell != null) {
+                    total += cell.count(x, z, maxDistance, filter);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @param key The plot's packed key
+     * @param x   Townblock X of the point, fractional
+     * @param z   Townblock Z of the point, fractional
+     * @return Distance in townblocks from the point to the plot's center
+     */
+    public static double distance(long key, double x, double z) {
+        double dx = PlotKey.x(key) + 0.5 - x;
+        double dz = PlotKey.z(key) + 0.5 - z;
+        return Math.sqrt(dx * dx + dz * dz);
+    }
+
+    /**
+     * Gets the cell coordinate of a townblock coordinate, in a long so points far outside any world can't overflow
+     */
+    private static long cellOf(double coordinate) {
+        return (long) Math.floor(coordinate) >> CELL_SHIFT;
+    }
+
+    private void offer(NearestHeap heap, int worldId, int cellX, int cellZ, int[] bounds, double x, double z,
+                       double maxDistance, LongPredicate filter) {
+        Cell cell = cellAt(worldId, cellX, cellZ, bounds);
+        if (cell != null) {
+            cell.offer(heap, x, z, maxDistance, filter);
+        }
+    }
+
+    private Cell cellAt(int worldId, int cellX, int cellZ, int[] bounds) {
+        if (cellX < bounds[0] || cellX > bounds[1] || cellZ < bounds[2] || cellZ > bounds[3]) {
+            return null;
+        }
+        int id = cellIds.get(PlotKey.pack(worldId, cellX, cellZ));
+        return id != PlotStore.MISSING ? cells.get(id) : null;
+    }
+
+    private void expandBounds(int worldId, int cellX, int cellZ) {
+        int[] bounds = worldBounds.computeIfAbsent(worldId, id -> new int[]{cellX, cellX, cellZ, cellZ});
+        bounds[0] = Math.min(bounds[0], cellX);
+        bounds[1] = Math.max(bounds[1], cellX);
+        bounds[2] = Math.min(bounds[2], cellZ);
+        bounds[3] = Math.max(bounds[3], cellZ);
+    }
+
+    /**
+     * The plots inside one cell; empty cells are kept, as plots are often re-listed in the same area
+     */
+    private static class Cell {
+        private final int worldId;
+        private long[] keys = new long[4];
+        private int size;
+
+        private Cell(int worldId) {
+            this.worldId = worldId;
+        }
+
+        private void add(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+        }
+
+        private void remove(long key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    keys[i] = keys[--size];
+                    return;
+                }
+            }
+        }
+
+        private void offer(NearestHeap heap, double x, double z, double maxDistance, LongPredicate filter) {
+            for (int i = 0; i < size; i++) {
+                double distance = distance(keys[i], x, z);
+                if (distance <= maxDistance && filter.test(keys[i])) {
+                    heap.offer(keys[i], distance);
+                }
+            }
+        }
+
+        private int count(double x, double z, double maxDistance, LongPredicate filter) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (distance(keys[i], x, z) <= maxDistance && filter.test(keys[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Bounded max-heap of the closest plots seen so far; the root is the farthest, evicted by anything closer
+     */
+    private static class NearestHeap {
+        private final long[] keys;
+        private final double[] distances;
+        private int size;
+
+        private NearestHeap(int capacity) {
+            keys = new long[capacity];
+            distances = new double[capacity];
+        }
+
+        private boolean isFull() {
+            return size == keys.length;
+        }
+
+        private double worstDistance() {
+            return distances[0];
+        }
+
+        private void offer(long key, double distance) {
+            if (size < keys.length) {
+                int index = size++;
+                keys[index] = key;
+                distances[index] = distance;
+                while (index > 0) {
+                    int parent = (index - 1) >>> 1;
+                    if (distances[parent] >= distances[index]) {
+                        break;
+                    }
+                    swap(parent, index);
+                    index = parent;
+                }
+            } else if (distance < distances[0]) {
+                keys[0] = key;
+                distances[0] = distance;
+                siftDown();
+            }
+        }
+
+        private long[] drainSorted() {
+            long[] sorted = new long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                sorted[i] = keys[0];
+                keys[0] = keys[--size];
+                distances[0] = distances[size];
+                siftDown();
+            }
+            return sorted;
+        }
+
+        private void siftDown() {
+            int index = 0;
+            while (true) {
+                int largest = index;
+                int left = index * 2 + 1;
+                int right = left + 1;
+                if (left < size && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < size && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == index) {
+                    return;
+                }
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            double distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+        }
+    }
+}
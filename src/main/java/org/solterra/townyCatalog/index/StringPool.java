@@ -0,0 +1,120 @@
+package org.solterra.townyCatalog.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns strings to dense int ids, so repeated values are stored once and referenced by id
+ * Strings added with {@link #intern} keep their id for the lifetime of the pool; strings added with {@link #acquire}
+ * are counted per reference and dropped once the last one is released, and their id is handed out again
+ * Not thread-safe; callers synchronize externally
+ */
+public class StringPool {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    // Reference counts by id, or -1 for strings that are never released
+    private int[] references = new int[16];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+
+    /**
+     * Interns a string for good, never releasing its id
+     *
+     * @param value The string to intern
+     * @return The string's id
+     */
+    public int intern(String value) {
+        int id = idOf(value);
+        references[id] = -1;
+        return id;
+    }
+
+    /**
+     * Interns a string and adds a reference to it, to be undone with {@link #release}
+     *
+     * @param value The string to intern
+     * @return The string's id
+     */
+    public int acquire(String value) {
+        int id = idOf(value);
+        if (references[id] >= 0) {
+            references[id]++;
+        }
+        return id;
+    }
+
+    /**
+     * Drops a reference added with {@link #acquire}, freeing the string once nothing refers to it
+     *
+     * @param id An id returned by {@link #acquire}
+     */
+    public void release(int id) {
+        if (references[id] <= 0 || --references[id] > 0) {
+            return;
+        }
+
+        ids.remove(values.get(id));
+        values.set(id, null);
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    /**
+     * @param value The string to look up
+     * @return The string's id, or -1 if it is not interned
+     */
+    public int find(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @param id An id returned by {@link #intern} or {@link #acquire}
+     * @return The interned string
+     */
+    public String get(int id) {
+        return values.get(id);
+    }
+
+    /**
+     * @return Number of interned strings
+     */
+    public int size() {
+        return values.size() - freeCount;
+    }
+
+    /**
+     * @return One more than the highest id handed out so far
+     */
+    public int capacity() {
+        return values.size();
+    }
+
+    private int idOf(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+
+        int newId;
+        if (freeCount > 0) {
+            newId = freeIds[--freeCount];
+            values.set(newId, value);
+        } else {
+            newId = values.size();
+            values.add(value);
+            if (newId == references.length) {
+                references = Arrays.copyOf(references, newId * 2);
+            }
+        }
+        references[newId] = 0;
+        ids.put(value, newId);
+        return newId;
+    }
+}
@@ -0,0 +1,471 @@
+package org.solterra.townyCatalog.index;
+
+import org.solterra.townyCatalog.model.PriceStats;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The plots for sale in a single town, with a price-sorted view for affordability queries
+ * Plots are held as packed {@link PlotKey}s in dense primitive arrays; the rest of a plot's data lives in the {@link PlotStore}
+ * Price aggregates are maintained incrementally on every change; the sorted arrays are rebuilt
+ * lazily on the first read after a change and shared between readers
+ * The order plots were listed in is kept as its own array, which only ever appends or closes a gap, so it never needs sorting
+ */
+public class TownListing {
+
+    private static final int MISSING = -1;
+    private static final PriceOrder EMPTY = new PriceOrder(new long[0], new double[0], new boolean[0]);
+    private static final ListingOrder EMPTY_LISTING = new ListingOrder(new long[0], new double[0], new boolean[0], new long[0]);
+
+    private final LongIntOpenMap slots = new LongIntOpenMap(16, MISSING);
+    private final PriceMultiset allPrices = new PriceMultiset();
+    private final PriceMultiset residentialPrices = new PriceMultiset();
+    private long[] keys = new long[16];
+    private double[] prices = new double[16];
+    private boolean[] residential = new boolean[16];
+    private long[] listedAt = new long[16];
+    private int size;
+    private long[] listedKeys = new long[16];
+    private long[] listedTimes = new long[16];
+    private PriceOrder order = EMPTY;
+    private boolean dirty;
+    private ListingOrder listingOrder = EMPTY_LISTING;
+    private boolean listingDirty;
+
+    /**
+     * Adds or re-prices a plot, treating a new plot as listed now
+     *
+     * @param key           The plot's packed key
+     * @param price         The asking price
+     * @param isResidential true if the plot is a residential plot
+     */
+    public void put(long key, double price, boolean isResidential) {
+        put(key, price, isResidential, System.currentTimeMillis());
+    }
+
+    /**
+     * Adds or re-prices a plot; re-pricing keeps the plot's place in listing order
+     *
+     * @param key           The plot's packed key
+     * @param price         The asking price
+     * @param isResidential true if the plot is a residential plot
+     * @param listedAt      When a new plot was listed, in epoch milliseconds
+     */
+    public synchronized void put(long key, double price, boolean isResidential, long listedAt) {
+        int slot = slots.get(key);
+        if (slot == MISSING) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+                residential = Arrays.copyOf(residential, size * 2);
+                this.listedAt = Arrays.copyOf(this.listedAt, size * 2);
+                listedKeys = Arrays.copyOf(listedKeys, size * 2);
+                listedTimes = Arrays.copyOf(listedTimes, size * 2);
+            }
+
+            // Clamp to the newest listing so the listing order stays sorted even if the clock steps back
+            long time = size > 0 ? Math.max(listedAt, listedTimes[size - 1]) : listedAt;
+            listedKeys[size] = key;
+            listedTimes[size] = time;
+
+            slot = size++;
+            slots.put(key, slot);
+            keys[slot] = key;
+            this.listedAt[slot] = time;
+        } else {
+            removeAggregates(slot);
+        }
+
+        prices[slot] = price;
+        residential[slot] = isResidential;
+        allPrices.add(price);
+        if (isResidential) {
+            residentialPrices.add(price);
+        }
+        dirty = true;
+        listingDirty = true;
+    }
+
+    /**
+     * Removes a plot
+     *
+     * @param key The plot's packed key
+     */
+    public synchronized void remove(long key) {
+        int slot = slots.remove(key);
+        if (slot == MISSING) {
+            return;
+        }
+
+        removeAggregates(slot);
+        removeListed(key, listedAt[slot]);
+
+        // Move the last plot into the hole to keep the arrays dense
+        int last = --size;
+        if (slot != last) {
+            keys[slot] = keys[last];
+            prices[slot] = prices[last];
+            residential[slot] = residential[last];
+            listedAt[slot] = listedAt[last];
+            slots.put(keys[slot], slot);
+        }
+        dirty = true;
+        listingDirty = true;
+    }
+
+    /**
+     * @param key The plot's packed key
+     * @return true if the plot is in this listing
+     */
+    public synchronized boolean contains(long key) {
+        return slots.containsKey(key);
+    }
+
+    /**
+     * @return true if the town has no plots for sale
+     */
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Number of plots for sale
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the price aggregates of the plots matching the catalog filters, without touching individual plots
+     *
+     * @param residentialOnly true to only include residential plots
+     * @param balance         Only include plots priced at or below this, positive infinity for all
+     * @return Count, min, max and sum of the matching prices
+     */
+    public synchronized PriceStats getStats(boolean residentialOnly, double balance) {
+        return (residentialOnly ? residentialPrices : allPrices).stats(balance);
+    }
+
+    /**
+     * @return Copy of the keys of every plot for sale, in no particular order
+     */
+    public synchronized long[] getKeys() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * @return The plots and their prices in ascending price order, as one consistent set of arrays
+     */
+    public synchronized PriceOrder getPriceOrder() {
+        reorderIfDirty();
+        return order;
+    }
+
+    /**
+     * @return The plots and their prices from oldest to newest listing, as one consistent set of arrays
+     */
+    public synchronized ListingOrder getListingOrder() {
+        if (listingDirty) {
+            // The order itself is maintained, only the prices and types need gathering into it
+            double[] orderedPrices = new double[size];
+            boolean[] orderedResidential = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                int slot = slots.get(listedKeys[i]);
+                orderedPrices[i] = prices[slot];
+                orderedResidential[i] = residential[slot];
+            }
+            listingOrder = new ListingOrder(Arrays.copyOf(listedKeys, size), orderedPrices, orderedResidential,
+                    Arrays.copyOf(listedTimes, size));
+            listingDirty = false;
+        }
+        return listingOrder;
+    }
+
+    /**
+     * @param key The plot's packed key
+     * @return When the plot was listed in epoch milliseconds, or 0 if it is not in this listing
+     */
+    public synchronized long getListedAt(long key) {
+        int slot = slots.get(key);
+        return slot != MISSING ? listedAt[slot] : 0;
+    }
+
+    /**
+     * @return When the most recently listed plot was listed in epoch milliseconds, or 0 if there are no plots
+     */
+    public synchronized long getNewestListing() {
+        return size > 0 ? listedTimes[size - 1] : 0;
+    }
+
+    /**
+     * Selects one window of the matching plots in price order
+     * While the sorted order is current it is sliced directly; after a change only the window is ordered, and the
+     * full sort is left to the next reader that needs the whole order
+     *
+     * @param minPrice        Lowest accepted price
+     * @param maxPrice        Highest accepted price
+     * @param residentialOnly true to only include residential plots
+     * @param ascending       true for lowest to highest, false for highest to lowest
+     * @param offset          Number of matching plots to skip
+     * @param limit           Maximum number of plots in the window
+     * @return The window's keys and the total number of matching plots
+     */
+    public synchronized PlotWindow selectWindow(double minPrice, double maxPrice, boolean residentialOnly,
+                                                 boolean ascending, int offset, int limit) {
+        if (!dirty) {
+            return PlotWindow.select(List.of(order), minPrice, maxPrice, residentialOnly, ascending, offset, limit);
+        }
+        return PlotWindow.selectUnsorted(keys, prices, residential, size, minPrice, maxPrice, residentialOnly,
+                ascending, offset, limit);
+    }
+
+    /**
+     * @return Keys ordered from lowest to highest price, shared and must not be modified
+     */
+    public long[] getKeysByPrice() {
+        return getPriceOrder().keys;
+    }
+
+    /**
+     * @return Prices in ascending order, shared and must not be modified
+     */
+    public double[] getSortedPrices() {
+        return getPriceOrder().prices;
+    }
+
+    /**
+     * @return The lowest price, or positive infinity if there are no plots
+     */
+    public synchronized double getMinPrice() {
+        return allPrices.min();
+    }
+
+    /**
+     * Counts the plots priced at or below a balance; these are the first plots of {@link #getKeysByPrice()}
+     *
+     * @param balance The balance to compare against
+     * @return Number of affordable plots
+     */
+    public synchronized int countAffordable(double balance) {
+        return allPrices.countAtOrBelow(balance);
+    }
+
+    /**
+     * Binary searches a sorted price array for the number of prices at or below a balance
+     *
+     * @param sortedPrices Prices in ascending order
+     * @param balance      The balance to compare against
+     * @return Length of the affordable prefix
+     */
+    public static int countAtOrBelow(double[] sortedPrices, double balance) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] <= balance) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Binary searches a sorted price array for the number of prices strictly below a minimum
+     *
+     * @param sortedPrices Prices in ascending order
+     * @param minPrice     The lowest accepted price
+     * @return Index of the first price at or above the minimum
+     */
+    public static int countBelow(double[] sortedPrices, double minPrice) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] < minPrice) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void removeAggregates(int slot) {
+        allPrices.remove(prices[slot]);
+        if (residential[slot]) {
+            residentialPrices.remove(prices[slot]);
+        }
+    }
+
+    private void removeListed(long key, long time) {
+        // Binary search to the first plot listed at that time, then step over any listed in the same millisecond
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (listedTimes[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        while (listedKeys[low] != key) {
+            low++;
+        }
+
+        System.arraycopy(listedKeys, low + 1, listedKeys, low, size - low - 1);
+        System.arraycopy(listedTimes, low + 1, listedTimes, low, size - low - 1);
+    }
+
+    private void reorderIfDirty() {
+        if (!dirty) {
+            return;
+        }
+
+        // Sort slot indexes by price, then gather every column through them so the arrays always agree
+        int[] byPrice = sortByPrice(prices, size);
+
+        long[] orderedKeys = new long[size];
+        double[] orderedPrices = new double[size];
+        boolean[] orderedResidential = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            int slot = byPrice[i];
+            orderedKeys[i] = keys[slot];
+            orderedPrices[i] = prices[slot];
+            orderedResidential[i] = residential[slot];
+        }
+
+        order = new PriceOrder(orderedKeys, orderedPrices, orderedResidential);
+        dirty = false;
+    }
+
+    /**
+     * Sorts slot indexes by their price with a bottom-up merge sort on primitive arrays, so nothing is boxed
+     * The sort is stable, so plots at the same price stay in slot order
+     */
+    private static int[] sortByPrice(double[] prices, int size) {
+        int[] from = new int[size];
+        for (int i = 0; i < size; i++) {
+            from[i] = i;
+        }
+
+        int[] to = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                int mid = Math.min(low + width, size);
+                int high = Math.min(low + 2 * width, size);
+                int left = low;
+                int right = mid;
+                for (int i = low; i < high; i++) {
+                    if (left < mid && (right >= high || Double.compare(prices[from[left]], prices[from[right]]) <= 0)) {
+                        to[i] = from[left++];
+                    } else {
+                        to[i] = from[right++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        return from;
+    }
+
+    /**
+     * Plot keys in ascending price order with their parallel prices and types, never modified once built
+     */
+    public static class PriceOrder {
+        private final long[] keys;
+        private final double[] prices;
+        private final boolean[] residential;
+
+        private PriceOrder(long[] keys, double[] prices, boolean[] residential) {
+            this.keys = keys;
+            this.prices = prices;
+            this.residential = residential;
+        }
+
+        /**
+         * @return Plot keys from lowest to highest price, shared and must not be modified
+         */
+        public long[] getKeys() {
+            return keys;
+        }
+
+        /**
+         * @return Prices parallel to {@link #getKeys()}, shared and must not be modified
+         */
+        public double[] getPrices() {
+            return prices;
+        }
+
+        /**
+         * @return Residential flags parallel to {@link #getKeys()}, shared and must not be modified
+         */
+        public boolean[] getResidential() {
+            return residential;
+        }
+
+        /**
+         * @return Number of plots
+         */
+        public int size() {
+            return keys.length;
+        }
+    }
+
+    /**
+     * Plot keys from oldest to newest listing with their parallel prices, types and listing times, never modified once built
+     */
+    public static class ListingOrder {
+        private final long[] keys;
+        private final double[] prices;
+        private final boolean[] residential;
+        private final long[] listedAt;
+
+        private ListingOrder(long[] keys, double[] prices, boolean[] residential, long[] listedAt) {
+            this.keys = keys;
+            this.prices = prices;
+            this.residential = residential;
+            this.listedAt = listedAt;
+        }
+
+        /**
+         * @return Plot keys from oldest to newest listing, shared and must not be modified
+         */
+        public long[] getKeys() {
+            return keys;
+        }
+
+        /**
+         * @return Prices parallel to {@link #getKeys()}, shared and must not be modified
+         */
+        public double[] getPrices() {
+            return prices;
+        }
+
+        /**
+         * @return Residential flags parallel to {@link #getKeys()}, shared and must not be modified
+         */
+        public boolean[] getResidential() {
+            return residential;
+        }
+
+        /**
+         * @return Listing times in epoch milliseconds parallel to {@link #getKeys()}, shared and must not be modified
+         */
+        public long[] getListedAt() {
+            return listedAt;
+        }
+
+        /**
+         * @return Number of plots
+         */
+        public int size() {
+            return keys.length;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.solterra.townyCatalog.index;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Every town with plots for sale, kept in one sorted list per {@link Key}
+ * A change moves the town within each list by binary search instead of re-sorting, and names are compared through
+ * {@link CollationKey}s made once per rename, so reading any order is a copy of an already sorted list
+ * Each town's open and public flags are kept alongside its sort values, so queries can filter on them off the main thread
+ * All methods are synchronized so orders can be read on worker threads while the main thread updates towns
+ */
+public class TownRanking {
+
+    /**
+     * What towns are ordered by; ties are broken alphabetically
+     */
+    public enum Key {
+        /**
+         * Alphabetical, ignoring case and treating underscores as spaces
+         */
+        NAME(Comparator.comparing(entry -> entry.nameKey)),
+        /**
+         * Cheapest plot for sale, lowest first
+         */
+        PRICE(Comparator.comparingDouble(entry -> entry.minPrice)),
+        /**
+         * Number of residents, largest first
+         */
+        POPULATION(Comparator.comparingInt((Entry entry) -> entry.population).reversed()),
+        /**
+         * Number of claimed townblocks, largest first
+         */
+        SIZE(Comparator.comparingInt((Entry entry) -> entry.size).reversed()),
+        /**
+         * Most recent plot listing, newest first
+         */
+        NEWEST(Comparator.comparingLong((Entry entry) -> entry.newestListing).reversed());
+
+        private final Comparator<Entry> comparator;
+
+        Key(Comparator<Entry> comparator) {
+            // The UUID makes every entry distinct, so a binary search finds the exact entry to remove
+            Comparator<Entry> byName = Comparator.comparing(entry -> entry.nameKey);
+            this.comparator = comparator.thenComparing(byName).thenComparing(entry -> entry.townUUID);
+        }
+    }
+
+    private final Collator collator = Collator.getInstance(Locale.ROOT);
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Map<Key, List<Entry>> orders = new EnumMap<>(Key.class);
+    private final Map<Key, List<UUID>> snapshots = new EnumMap<>(Key.class);
+    private long version;
+
+    public TownRanking() {
+        collator.setStrength(Collator.SECONDARY);
+        for (Key key : Key.values()) {
+            orders.put(key, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds a town or moves it to its new place in every order
+     *
+     * @param townUUID      The UUID of the town
+     * @param townName      The town's name
+     * @param population    Number of residents
+     * @param size          Number of claimed townblocks
+     * @param minPrice      Price of its cheapest plot for sale
+     * @param newestListing When its most recent plot was listed, in epoch milliseconds
+     * @param open          true if the town is open
+     * @param isPublic      true if the town is public
+     */
+    public synchronized void update(UUID townUUID, String townName, int population, int size, double minPrice,
+                                    long newestListing, boolean open, boolean isPublic) {
+        Entry previous = entries.get(townUUID);
+        if (previous != null && previous.matches(townName, population, size, minPrice, newestListing, open, isPublic)) {
+            return;
+        }
+
+        // Only a rename needs a new collation key
+        CollationKey nameKey = previous != null && previous.townName.equals(townName)
+                ? previous.nameKey
+                : collator.getCollationKey(NamePrefixIndex.fold(townName));
+        Entry entry = new Entry(townUUID, townName, nameKey, population, size, minPrice, newestListing, open, isPublic);
+        for (Key key : Key.values()) {
+            List<Entry> order = orders.get(key);
+            if (previous != null) {
+                order.remove(Collections.binarySearch(order, previous, key.comparator));
+            }
+            order.add(-Collections.binarySearch(order, entry, key.comparator) - 1, entry);
+        }
+        entries.put(townUUID, entry);
+        snapshots.clear();
+        version++;
+    }
+
+    /**
+     * Removes a town from every order
+     *
+     * @param townUUID The UUID of the town
+     */
+    public synchronized void remove(UUID townUUID) {
+        Entry previous = entries.remove(townUUID);
+        if (previous == null) {
+            return;
+        }
+
+        for (Key key : Key.values()) {
+            List<Entry> order = orders.get(key);
+            order.remove(Collections.binarySearch(order, previous, key.comparator));
+        }
+        snapshots.clear();
+        version++;
+    }
+
+    /**
+     * Removes every town
+     */
+    public synchronized void clear() {
+        entries.clear();
+        for (List<Entry> order : orders.values()) {
+            order.clear();
+        }
+        snapshots.clear();
+        version++;
+    }
+
+    /**
+     * Gets the towns in one order; the list is shared until the next change
+     *
+     * @param key What to order the towns by
+     * @return UUIDs of every ranked town in order, unmodifiable
+     */
+    public synchronized List<UUID> getOrder(Key key) {
+        return snapshots.computeIfAbsent(key, k -> {
+            List<Entry> order = orders.get(k);
+            List<UUID> towns = new ArrayList<>(order.size());
+            for (Entry entry : order) {
+                towns.add(entry.townUUID);
+            }
+            return Collections.unmodifiableList(towns);
+        });
+    }
+
+    /**
+     * Gets a ranked town's name
+     *
+     * @param townUUID The UUID of the town
+     * @return The name the town was last ranked with, or null if it isn't ranked
+     */
+    public synchronized String getName(UUID townUUID) {
+        Entry entry = entries.get(townUUID);
+        return entry != null ? entry.townName : null;
+    }
+
+    /**
+     * @param townUUID The UUID of the town
+     * @return The town's number of residents when last ranked, or 0 if it isn't ranked
+     */
+    public synchronized int getPopulation(UUID townUUID) {
+        Entry entry = entries.get(townUUID);
+        return entry != null ? entry.population : 0;
+    }
+
+    /**
+     * @param townUUID The UUID of the town
+     * @return true if the town was open when last ranked, false if it wasn't or isn't ranked
+     */
+    public synchronized boolean isOpen(UUID townUUID) {
+        Entry entry = entries.get(townUUID);
+        return entry != null && entry.open;
+    }
+
+    /**
+     * @param townUUID The UUID of the town
+     * @return true if the town was public when last ranked, false if it wasn't or isn't ranked
+     */
+    public synchronized boolean isPublic(UUID townUUID) {
+        Entry entry = entries.get(townUUID);
+        return entry != null && entry.isPublic;
+    }
+
+    /**
+     * @return Number of changes made to the orders so far, including renames that leave every order as it was
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Number of ranked towns
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * One town's sort values, replaced rather than modified so it can always be found in the orders it sits in
+     */
+    private static class Entry {
+        private final UUID townUUID;
+        private final String townName;
+        private final CollationKey nameKey;
+        private final int population;
+        private final int size;
+        private final double minPrice;
+        private final long newestListing;
+        private final boolean open;
+        private final boolean isPublic;
+
+        private Entry(UUID townUUID, String townName, CollationKey nameKey, int population, int size, double minPrice,
+                      long newestListing, boolean open, boolean isPublic) {
+            this.townUUID = townUUID;
+            this.townName = townName;
+            this.nameKey = nameKey;
+            this.population = population;
+            this.size = size;
+            this.minPrice = minPrice;
+            this.newestListing = newestListing;
+            this.open = open;
+            this.isPublic = isPublic;
+        }
+
+        private boolean matches(String townName, int population, int size, double minPrice, long newestListing,
+                                boolean open, boolean isPublic) {
+            return Objects.equals(this.townName, townName) && this.population == population && this.size == size
+                    && Double.compare(this.minPrice, minPrice) == 0 && this.newestListing == newestListing
+                    && this.open == open && this.isPublic == isPublic;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.solterra.townyCatalog.listener;
+
+import com.palmergames.bukkit.towny.event.plot.changeowner.PlotChangeOwnerEvent;
+import com.palmergames.bukkit.towny.object.Resident;
+import com.palmergames.bukkit.towny.object.TownBlock;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.solterra.townyCatalog.TownyCatalog;
+import org.solterra.townyCatalog.economy.BalanceCache;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+
+/**
+ * Drops balance snapshots that are known to be out of date, such as the buyer's and seller's right after a plot sale
+ */
+public class BalanceListener implements Listener {
+
+    private final TownyCatalog plugin;
+    private final BalanceCache balanceCache;
+
+    public BalanceListener(TownyCatalog plugin, BalanceCache balanceCache) {
+        this.plugin = plugin;
+        this.balanceCache = balanceCache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlotChangeOwner(PlotChangeOwnerEvent event) {
+        // The townblock still names the seller here; the new owner is only set once Towny has finished the purchase
+        TownBlock townBlock = event.getTownBlock();
+        Resident seller = townBlock.getResidentOrNull();
+        if (seller != null) {
+            balanceCache.invalidate(seller.getUUID());
+        }
+        CatalogScheduler.runGlobal(plugin, () -> {
+            Resident owner = townBlock.getResidentOrNull();
+            if (owner != null) {
+                balanceCache.invalidate(owner.getUUID());
+            }
+        });
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        balanceCache.invalidate(event.getPlayer().getUniqueId());
+    }
+}
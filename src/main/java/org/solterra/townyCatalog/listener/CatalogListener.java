@@ -1,21 +1,31 @@
 package org.solterra.townyCatalog.listener;
 
 import com.palmergames.bukkit.towny.object.Town;
-import com.palmergames.bukkit.towny.object.TownBlock;
+import io.papermc.paper.event.player.AsyncChatEvent;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.Location;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
-import org.solterra.townyCatalog.api.TownyCatalogAPI;
+import org.solterra.townyCatalog.TownyCatalog;
 import org.solterra.townyCatalog.gui.CatalogGUI;
 import org.solterra.townyCatalog.gui.CatalogInventoryHolder;
+import org.solterra.townyCatalog.gui.OpenPipeline;
+import org.solterra.townyCatalog.gui.SearchPrompt;
 import org.solterra.townyCatalog.gui.TownSelectionGUI;
 import org.solterra.townyCatalog.gui.TownSelectionHolder;
+import org.solterra.townyCatalog.gui.ViewManager;
+import org.solterra.townyCatalog.metrics.CatalogMetrics;
+import org.solterra.townyCatalog.model.PlotInfo;
+import org.solterra.townyCatalog.util.CatalogScheduler;
 
 /**
  * Listens for inventory click events in the Catalog GUI
@@ -39,18 +49,52 @@ public class CatalogListener implements Listener {
 
         // Handle Town Selection GUI
         if (holder instanceof TownSelectionHolder townHolder) {
+            long startNanos = System.nanoTime();
             event.setCancelled(true);
             handleTownSelectionClick(player, townHolder, event.getSlot());
+            CatalogMetrics.time(CatalogMetrics.Timer.INVENTORY_CLICK, startNanos);
             return;
         }
 
         // Handle Catalog (Plot Display) GUI
         if (holder instanceof CatalogInventoryHolder catalogHolder) {
+            long startNanos = System.nanoTime();
             event.setCancelled(true);
             handleCatalogClick(player, catalogHolder, event.getSlot());
+            CatalogMetrics.time(CatalogMetrics.Timer.INVENTORY_CLICK, startNanos);
         }
     }
 
+    @EventHandler
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        InventoryHolder holder = event.getInventory().getHolder();
+
+        // Opening any other inventory abandons a catalog that is still being prepared
+        if (!(holder instanceof TownSelectionHolder) && !(holder instanceof CatalogInventoryHolder)) {
+            OpenPipeline.cancel(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler
+    public void onInventoryClose(InventoryCloseEvent event) {
+        ViewManager.unregister(event.getPlayer().getUniqueId(), event.getInventory().getHolder());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onChat(AsyncChatEvent event) {
+        // Search text typed after clicking the search button never reaches chat
+        if (SearchPrompt.accept(event.getPlayer(), PlainTextComponentSerializer.plainText().serialize(event.message()))) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        OpenPipeline.cancel(event.getPlayer().getUniqueId());
+        ViewManager.unregister(event.getPlayer().getUniqueId());
+        SearchPrompt.cancel(event.getPlayer().getUniqueId());
+    }
+
     /**
      * Handles clicks in the town selection inventory
      *
@@ -60,19 +104,33 @@ public class CatalogListener implements Listener {
      */
     private void handleTownSelectionClick(Player player, TownSelectionHolder holder, int slot) {
         // Handle navigation clicks
-        if (slot == 45 && holder.hasPreviousPage()) {
+        if (slot == TownSelectionGUI.PREVIOUS_PAGE_SLOT && holder.hasPreviousPage()) {
             TownSelectionGUI.populatePage(holder, holder.getCurrentPage() - 1);
+            CatalogMetrics.count(CatalogMetrics.Counter.PAGE_FLIPS);
             player.playSound(player.getLocation(), "ui.button.click", 1.0f, 1.0f);
             return;
         }
 
-        if (slot == 53 && holder.hasNextPage()) {
+        if (slot == TownSelectionGUI.NEXT_PAGE_SLOT && holder.hasNextPage()) {
             TownSelectionGUI.populatePage(holder, holder.getCurrentPage() + 1);
+            CatalogMetrics.count(CatalogMetrics.Counter.PAGE_FLIPS);
+            player.playSound(player.getLocation(), "ui.button.click", 1.0f, 1.0f);
+            return;
+        }
+
+        if (slot == TownSelectionGUI.SEARCH_SLOT) {
+            player.playSound(player.getLocation(), "ui.button.click", 1.0f, 1.0f);
+            SearchPrompt.begin(player);
+            return;
+        }
+
+        if (slot == TownSelectionGUI.SORT_SLOT) {
+            TownSelectionGUI.cycleSortMode(holder);
             player.playSound(player.getLocation(), "ui.button.click", 1.0f, 1.0f);
             return;
         }
 
-        if (slot == 49) {
+        if (slot == TownSelectionGUI.INFO_SLOT) {
             // Info slot - do nothing
             return;
         }
@@ -93,49 +151,40 @@ public class CatalogListener implements Listener {
      * @param slot       The clicked slot
      */
     private void handleCatalogClick(Player player, CatalogInventoryHolder holder, int slot) {
-        // Handle back button (slot 45)
-        if (slot == 45) {
+        // Handle back button
+        if (slot == CatalogGUI.BACK_BUTTON_SLOT) {
             player.playSound(player.getLocation(), "ui.button.click", 1.0f, 1.0f);
             TownSelectionGUI.openTownSelection(player);
             return;
         }
 
-        // Handle mayor head (slot 46) - decorative only
-        if (slot == 46) {
-            return;
-        }
-
-        // Handle previous page navigation (slot 47)
-        if (slot == 47 && holder.hasPreviousPage()) {
+        // Handle previous page navigation
+        if (slot == CatalogGUI.PREVIOUS_PAGE_SLOT && holder.hasPreviousPage()) {
             CatalogGUI.populatePage(holder, holder.getCurrentPage() - 1);
+            CatalogMetrics.count(CatalogMetrics.Counter.PAGE_FLIPS);
             player.playSound(player.getLocation(), "ui.button.click", 1.0f, 1.0f);
             return;
         }
 
-        // Handle town info (slot 48) - informational only
-        if (slot == 48) {
-            return;
-        }
-
-        // Handle catalog info (slot 49) - informational only
-        if (slot == 49) {
-            return;
-        }
-
-        // Handle tax info (slot 50) - informational only
-        if (slot == 50) {
+        // Handle next page navigation
+        if (slot == CatalogGUI.NEXT_PAGE_SLOT && holder.hasNextPage()) {
+            CatalogGUI.populatePage(holder, holder.getCurrentPage() + 1);
+            CatalogMetrics.count(CatalogMetrics.Counter.PAGE_FLIPS);
+            player.playSound(player.getLocation(), "ui.button.click", 1.0f, 1.0f);
             return;
         }
 
-        // Handle next page navigation (slot 51)
-        if (slot == 51 && holder.hasNextPage()) {
-            CatalogGUI.populatePage(holder, holder.getCurrentPage() + 1);
+        // Handle sort order changes
+        if (slot == CatalogGUI.SORT_SLOT) {
+            CatalogGUI.cycleSortMode(holder);
             player.playSound(player.getLocation(), "ui.button.click", 1.0f, 1.0f);
             return;
         }
 
+        // Town info, tax info, catalog info and the mayor head are informational only,
+        // and getPlotFromSlot ignores every bottom row slot
         // Handle plot clicks
-        TownBlock plot = CatalogGUI.getPlotFromSlot(holder, slot);
+        PlotInfo plot = CatalogGUI.getPlotFromSlot(holder, slot);
         if (plot != null) {
             handlePlotClick(player, plot);
         }
@@ -147,18 +196,41 @@ public class CatalogListener implements Listener {
      * @param player The player who clicked
      * @param plot   The plot that was clicked
      */
-    private void handlePlotClick(Player player, TownBlock plot) {
-        Location plotLocation = TownyCatalogAPI.getPlotCenterLocation(plot);
+    private void handlePlotClick(Player player, PlotInfo plot) {
+        // Close the inventory
+        player.closeInventory();
 
-        if (plotLocation == null) {
-            player.sendMessage(Component.text("Unable to get plot location!", NamedTextColor.RED));
-            return;
-        }
+        // Only now is the plot's location resolved; cold plots load their chunk asynchronously
+        // The teleport starts on the player's own thread, as Folia requires
+        plot.getPlotLocation().whenComplete((plotLocation, error) -> CatalogScheduler.runForEntity(TownyCatalog.getInstance(), player, () -> {
+            if (!player.isOnline()) {
+                return;
+            }
+
+            if (error != null || plotLocation == null) {
+                player.sendMessage(Component.text("Unable to get plot location!", NamedTextColor.RED));
+                return;
+            }
+
+            // Teleport the player to the plot
+            player.teleportAsync(plotLocation).thenAccept(success -> {
+                if (success) {
+                    CatalogMetrics.count(CatalogMetrics.Counter.TELEPORTS);
+                    sendTeleportMessages(player, plot);
+                }
+            });
+        }));
+    }
 
-        String townName = plot.getTownOrNull() != null ? plot.getTownOrNull().getName() : "Unknown";
+    /**
+     * Sends the confirmation messages after teleporting to a plot
+     *
+     * @param player The player who teleported
+     * @param plot   The plot they teleported to
+     */
+    private void sendTeleportMessages(Player player, PlotInfo plot) {
+        String townName = plot.getTownName();
 
-        // Teleport the player to the plot
-        player.teleport(plotLocation);
         player.playSound(player.getLocation(), "entity.enderman.teleport", 1.0f, 1.0f);
 
         // Send confirmation message
@@ -167,13 +239,10 @@ public class CatalogListener implements Listener {
                 .append(Component.text("!", NamedTextColor.GREEN)));
 
         player.sendMessage(Component.text("Price: ", NamedTextColor.GRAY)
-                .append(Component.text("$" + String.format("%.2f", plot.getPlotPrice()), NamedTextColor.GOLD)));
+                .append(Component.text("$" + plot.getFormattedPrice(), NamedTextColor.GOLD)));
 
         player.sendMessage(Component.text("Use ", NamedTextColor.GRAY)
                 .append(Component.text("/plot claim", NamedTextColor.YELLOW))
                 .append(Component.text(" to purchase this plot", NamedTextColor.GRAY)));
-
-        // Close the inventory
-        player.closeInventory();
     }
 }
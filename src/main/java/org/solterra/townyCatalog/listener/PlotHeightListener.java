@@ -0,0 +1,50 @@
+package org.solterra.townyCatalog.listener;
+
+import com.palmergames.bukkit.towny.TownySettings;
+import com.palmergames.bukkit.towny.object.WorldCoord;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.solterra.townyCatalog.index.PlotHeightCache;
+
+/**
+ * Invalidates cached plot center heights when a block in a plot's center column changes
+ */
+public class PlotHeightListener implements Listener {
+
+    private final PlotHeightCache heightCache;
+
+    public PlotHeightListener(PlotHeightCache heightCache) {
+        this.heightCache = heightCache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        invalidateIfCenter(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        invalidateIfCenter(event.getBlock());
+    }
+
+    /**
+     * Invalidates the plot height if the block lies in the center column of its townblock
+     */
+    private void invalidateIfCenter(Block block) {
+        int blockSize = TownySettings.getTownBlockSize();
+        int halfBlockSize = blockSize / 2;
+        int townBlockX = Math.floorDiv(block.getX(), blockSize);
+        int townBlockZ = Math.floorDiv(block.getZ(), blockSize);
+
+        if (block.getX() != townBlockX * blockSize + halfBlockSize
+                || block.getZ() != townBlockZ * blockSize + halfBlockSize) {
+            return;
+        }
+
+        heightCache.invalidate(new WorldCoord(block.getWorld().getName(), townBlockX, townBlockZ));
+    }
+}
@@ -0,0 +1,168 @@
+package org.solterra.townyCatalog.listener;
+
+import com.palmergames.bukkit.towny.event.DeleteTownEvent;
+import com.palmergames.bukkit.towny.event.PlotChangeTypeEvent;
+import com.palmergames.bukkit.towny.event.RenameTownEvent;
+import com.palmergames.bukkit.towny.event.TownAddResidentEvent;
+import com.palmergames.bukkit.towny.event.TownClaimEvent;
+import com.palmergames.bukkit.towny.event.TownRemoveResidentEvent;
+import com.palmergames.bukkit.towny.event.TownUnclaimEvent;
+import com.palmergames.bukkit.towny.event.TownyLoadedDatabaseEvent;
+import com.palmergames.bukkit.towny.event.plot.PlotNotForSaleEvent;
+import com.palmergames.bukkit.towny.event.plot.PlotSetForSaleEvent;
+import com.palmergames.bukkit.towny.event.plot.changeowner.PlotChangeOwnerEvent;
+import com.palmergames.bukkit.towny.event.town.TownRuinedEvent;
+import com.palmergames.bukkit.towny.event.town.toggle.TownToggleOpenEvent;
+import com.palmergames.bukkit.towny.event.town.toggle.TownTogglePublicEvent;
+import com.palmergames.bukkit.towny.object.WorldCoord;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.solterra.townyCatalog.TownyCatalog;
+import org.solterra.townyCatalog.index.PlotIndex;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the {@link PlotIndex} in sync with Towny
+ * Changed coordinates and towns are queued and re-read from Towny on the next tick, once Towny has finished applying the change
+ * Towny events may fire on any region thread under Folia, so the index is only ever changed from the global region
+ * Towny has no plot rename event, so renamed plots are picked up by {@link PlotIndex#refreshRenamedPlots} instead
+ */
+public class PlotIndexListener implements Listener {
+
+    private final TownyCatalog plugin;
+    private final PlotIndex index;
+    private final Set<WorldCoord> pending = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> pendingTowns = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    public PlotIndexListener(TownyCatalog plugin, PlotIndex index) {
+        this.plugin = plugin;
+        this.index = index;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlotSetForSale(PlotSetForSaleEvent event) {
+        queue(event.getTownBlock().getWorldCoord());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlotNotForSale(PlotNotForSaleEvent event) {
+        queue(event.getTownBlock().getWorldCoord());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlotChangeOwner(PlotChangeOwnerEvent event) {
+        queue(event.getTownBlock().getWorldCoord());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlotChangeType(PlotChangeTypeEvent event) {
+        // The index keeps each plot's type and whether it is residential
+        queue(event.getTownBlock().getWorldCoord());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTownClaim(TownClaimEvent event) {
+        queue(event.getTownBlock().getWorldCoord());
+        if (event.getTownBlock().getTownOrNull() != null) {
+            queueTown(event.getTownBlock().getTownOrNull().getUUID());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTownUnclaim(TownUnclaimEvent event) {
+        queue(event.getWorldCoord());
+        if (event.getTown() != null) {
+            queueTown(event.getTown().getUUID());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownAddResident(TownAddResidentEvent event) {
+        queueTown(event.getTown().getUUID());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownRemoveResident(TownRemoveResidentEvent event) {
+        queueTown(event.getTown().getUUID());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTownToggleOpen(TownToggleOpenEvent event) {
+        queueTown(event.getTown().getUUID());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTownTogglePublic(TownTogglePublicEvent event) {
+        queueTown(event.getTown().getUUID());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownDelete(DeleteTownEvent event) {
+        UUID townUUID = event.getTownUUID();
+        CatalogScheduler.onGlobal(plugin, () -> index.removeTown(townUUID));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownRuined(TownRuinedEvent event) {
+        UUID townUUID = event.getTown().getUUID();
+        CatalogScheduler.onGlobal(plugin, () -> index.removeTown(townUUID));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownRename(RenameTownEvent event) {
+        UUID townUUID = event.getTown().getUUID();
+        String townName = event.getTown().getName();
+        CatalogScheduler.onGlobal(plugin, () -> index.renameTown(townUUID, townName));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownyDatabaseLoaded(TownyLoadedDatabaseEvent event) {
+        CatalogScheduler.onGlobal(plugin, index::rebuild);
+    }
+
+    /**
+     * Queues a coordinate for a refresh on the next tick, coalescing repeated changes to the same plot
+     */
+    private void queue(WorldCoord worldCoord) {
+        pending.add(worldCoord);
+        scheduleFlush();
+    }
+
+    /**
+     * Queues a town whose population, claims or open and public flags changed, so its entry in the town orders is
+     * updated on the next tick
+     */
+    private void queueTown(UUID townUUID) {
+        pendingTowns.add(townUUID);
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            CatalogScheduler.runGlobal(plugin, this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        // Entries are removed one at a time, as other threads may queue more while this runs
+        for (Iterator<WorldCoord> it = pending.iterator(); it.hasNext(); ) {
+            WorldCoord worldCoord = it.next();
+            it.remove();
+            index.refresh(worldCoord);
+        }
+        for (Iterator<UUID> it = pendingTowns.iterator(); it.hasNext(); ) {
+            UUID townUUID = it.next();
+            it.remove();
+            index.updateTown(townUUID);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.solterra.townyCatalog.metrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide latency histograms and counters for the catalog
+ * Everything is recorded through lock-free accumulators, so instrumenting hot paths never blocks the main thread
+ */
+public class CatalogMetrics {
+
+    /**
+     * Timed operations
+     */
+    public enum Timer {
+        OPEN_TOWN_SELECTION("Open town selection"),
+        OPEN_CATALOG("Open catalog"),
+        POPULATE_PAGE("Populate page"),
+        PLOT_LOCATION("Plot location"),
+        INVENTORY_CLICK("Inventory click"),
+        NAME_SEARCH("Name search"),
+        SNAPSHOT_CAPTURE("Snapshot capture"),
+        EXPORT("Catalog export"),
+        HTTP_RENDER("HTTP render");
+
+        private final String label;
+
+        Timer(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Counted events
+     */
+    public enum Counter {
+        OPENS("Opens"),
+        PAGE_FLIPS("Page flips"),
+        TELEPORTS("Teleports"),
+        LIVE_REFRESHES("Live refreshes"),
+        SLOTS_WRITTEN("Slots written"),
+        TOWN_CACHE_HITS("Town cache hits"),
+        TOWN_CACHE_MISSES("Town cache misses"),
+        HEIGHT_CACHE_HITS("Height cache hits"),
+        HEIGHT_CACHE_MISSES("Height cache misses"),
+        HEAD_CACHE_HITS("Head cache hits"),
+        HEAD_CACHE_MISSES("Head cache misses"),
+        BALANCE_CACHE_HITS("Balance cache hits"),
+        BALANCE_CACHE_MISSES("Balance cache misses"),
+        HTTP_REQUESTS("HTTP requests"),
+        HTTP_NOT_MODIFIED("HTTP not modified");
+
+        private final String label;
+
+        Counter(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Map<Timer, LatencyHistogram> TIMERS = new EnumMap<>(Timer.class);
+    private static final Map<Counter, LongAdder> COUNTERS = new EnumMap<>(Counter.class);
+    private static volatile long startedAt = System.currentTimeMillis();
+
+    static {
+        for (Timer timer : Timer.values()) {
+            TIMERS.put(timer, new LatencyHistogram());
+        }
+        for (Counter counter : Counter.values()) {
+            COUNTERS.put(counter, new LongAdder());
+        }
+    }
+
+    /**
+     * Records the time elapsed since a start timestamp
+     *
+     * @param timer      The timed operation
+     * @param startNanos Timestamp from {@link System#nanoTime()}
+     */
+    public static void time(Timer timer, long startNanos) {
+        TIMERS.get(timer).recordSince(startNanos);
+    }
+
+    /**
+     * Increments a counter by one
+     *
+     * @param counter The counter
+     */
+    public static void count(Counter counter) {
+        COUNTERS.get(counter).increment();
+    }
+
+    /**
+     * Increments a counter
+     *
+     * @param counter The counter
+     * @param amount  Amount to add
+     */
+    public static void count(Counter counter, long amount) {
+        COUNTERS.get(counter).add(amount);
+    }
+
+    /**
+     * @param timer The timed operation
+     * @return The operation's histogram
+     */
+    public static LatencyHistogram getHistogram(Timer timer) {
+        return TIMERS.get(timer);
+    }
+
+    /**
+     * @param counter The counter
+     * @return The counter's current value
+     */
+    public static long getCount(Counter counter) {
+        return COUNTERS.get(counter).sum();
+    }
+
+    /**
+     * @return When metrics were last reset, in epoch milliseconds
+     */
+    public static long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Clears every histogram and counter
+     */
+    public static void reset() {
+        TIMERS.values().forEach(LatencyHistogram::reset);
+        COUNTERS.values().forEach(LongAdder::reset);
+        startedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Formats every histogram and counter as plain text lines
+     *
+     * @return Report lines
+     */
+    public static List<String> report() {
+        List<String> lines = new ArrayList<>();
+        lines.add("Latency (ms)              count      p50      p90      p99      max");
+        for (Timer timer : Timer.values()) {
+            LatencyHistogram histogram = TIMERS.get(timer);
+            lines.add(String.format("%-22s %8d %8.2f %8.2f %8.2f %8.2f", timer.getLabel(), histogram.count(),
+                    toMillis(histogram.percentile(50)), toMillis(histogram.percentile(90)),
+                    toMillis(histogram.percentile(99)), toMillis(histogram.max())));
+        }
+
+        lines.add("Counters");
+        for (Counter counter : Counter.values()) {
+            lines.add(String.format("%-22s %8d", counter.getLabel(), getCount(counter)));
+        }
+        return lines;
+    }
+
+    /**
+     * @param nanos Duration in nanoseconds
+     * @return Duration in milliseconds
+     */
+    public static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,70 @@
+package org.solterra.townyCatalog.metrics;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Periodically appends the metrics report to a local file, off the main thread
+ */
+public class MetricsDumper {
+
+    private final Plugin plugin;
+    private final File file;
+    private ScheduledTask task;
+
+    public MetricsDumper(Plugin plugin, File file) {
+        this.plugin = plugin;
+        this.file = file;
+    }
+
+    /**
+     * (Re)starts the periodic dump, replacing any running schedule
+     *
+     * @param intervalMinutes Minutes between dumps, 0 or less to disable
+     */
+    public void start(int intervalMinutes) {
+        stop();
+        if (intervalMinutes <= 0) {
+            return;
+        }
+
+        task = CatalogScheduler.runAsyncTimer(plugin, this::dump, intervalMinutes);
+    }
+
+    /**
+     * Stops the periodic dump
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Appends the current report to the file
+     */
+    public void dump() {
+        List<String> lines = new ArrayList<>();
+        lines.add("# " + Instant.now() + " (since " + Instant.ofEpochMilli(CatalogMetrics.getStartedAt()) + ")");
+        lines.addAll(CatalogMetrics.report());
+        lines.add("");
+
+        try {
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to write metrics to " + file.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.solterra.townyCatalog.model;
+
+import java.util.List;
+
+/**
+ * One page of catalog query results along with the total number of matching plots
+ */
+public class CatalogPage {
+    private final List<PlotInfo> plots;
+    private final int total;
+    private final int offset;
+    private final int limit;
+
+    public CatalogPage(List<PlotInfo> plots, int total, int offset, int limit) {
+        this.plots = plots;
+        this.total = total;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * @return The plots on this page, in query order
+     */
+    public List<PlotInfo> getPlots() {
+        return plots;
+    }
+
+    /**
+     * @return Number of matching plots across all pages
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return true if there are matching plots before this page
+     */
+    public boolean hasPrevious() {
+        return offset > 0 && total > 0;
+    }
+
+    /**
+     * @return true if there are matching plots after this page
+     */
+    public boolean hasNext() {
+        return (long) offset + limit < total;
+    }
+}
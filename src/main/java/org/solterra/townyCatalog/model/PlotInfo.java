@@ -1,41 +1,79 @@
 package org.solterra.townyCatalog.model;
 
+import com.palmergames.bukkit.towny.TownySettings;
 import com.palmergames.bukkit.towny.object.TownBlock;
 import com.palmergames.bukkit.towny.object.TownBlockType;
+import com.palmergames.bukkit.towny.object.TownBlockTypeHandler;
 import org.bukkit.Location;
+import org.solterra.townyCatalog.api.TownyCatalogAPI;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Data holder class for plot information to be displayed in the catalog GUI
+ * Building one never touches Towny or chunk data; the townblock and location are only resolved when first requested
  */
 public class PlotInfo {
-    private final TownBlock plotBlock;
+    private final long key;
     private final String plotName;
     private final String townName;
     private final double price;
-    private final TownBlockType plotType;
-    private final Location plotLocation;
+    private final String plotType;
+    private CompletableFuture<Location> plotLocation;
     private final int plotX;
     private final int plotZ;
     private final String worldName;
 
-    public PlotInfo(TownBlock plotBlock,String plotName, String townName, double price, TownBlockType plotType,
-                    Location plotLocation, int plotX, int plotZ, String worldName) {
-        this.plotBlock = plotBlock;
+    public PlotInfo(long key, String plotName, String townName, double price, String plotType,
+                    int plotX, int plotZ, String worldName) {
+        this.key = key;
         this.plotName = plotName;
         this.townName = townName;
         this.price = price;
         this.plotType = plotType;
-        this.plotLocation = plotLocation;
         this.plotX = plotX;
         this.plotZ = plotZ;
         this.worldName = worldName;
     }
 
+    /**
+     * @return The plot's packed key in the plot index
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Looks up the plot's townblock in Towny, must be called on the main thread
+     *
+     * @return The townblock, or null if the coordinate is no longer claimed
+     */
+    public TownBlock getPlotBlock() {
+        return TownyCatalogAPI.getPlotBlock(key);
+    }
+
+    /**
+     * Resolves the center location of the plot on first use
+     * This may load chunk data asynchronously, so it should only be called when the player acts on the plot
+     *
+     * @return Future completing with the location at the center of the plot, or null if its world is not loaded
+     */
+    public CompletableFuture<Location> getPlotLocation() {
+        if (plotLocation == null) {
+            plotLocation = TownyCatalogAPI.getPlotCenterLocationAsync(worldName, plotX, plotZ);
+        }
+        return plotLocation;
+    }
+
     public String getTownName() {
         return townName;
     }
 
     public TownBlockType getPlotType() {
+        return TownBlockTypeHandler.getType(plotType);
+    }
+
+    public String getPlotTypeName() {
         return plotType;
     }
 
@@ -58,4 +96,19 @@ public class PlotInfo {
     public String getCoordinates() {
         return String.format("X: %d, Z: %d", plotX, plotZ);
     }
+
+    /**
+     * @param location The location to measure from
+     * @return Distance in blocks from the location to the plot's center, or positive infinity if it is in another world
+     */
+    public double distanceTo(Location location) {
+        if (location.getWorld() == null || !location.getWorld().getName().equals(worldName)) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        int blockSize = TownySettings.getTownBlockSize();
+        double dx = plotX * blockSize + blockSize / 2.0 - location.getX();
+        double dz = plotZ * blockSize + blockSize / 2.0 - location.getZ();
+        return Math.sqrt(dx * dx + dz * dz);
+    }
 }
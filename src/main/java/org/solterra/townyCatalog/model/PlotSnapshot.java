@@ -0,0 +1,29 @@
+package org.solterra.townyCatalog.model;
+
+/**
+ * Immutable copy of the plot data needed to filter and sort a catalog away from the main thread
+ * Plots are identified by their packed key, so no Towny object is carried off the main thread
+ */
+public class PlotSnapshot {
+    private final long key;
+    private final double price;
+    private final boolean residential;
+
+    public PlotSnapshot(long key, double price, boolean residential) {
+        this.key = key;
+        this.price = price;
+        this.residential = residential;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public boolean isResidential() {
+        return residential;
+    }
+}
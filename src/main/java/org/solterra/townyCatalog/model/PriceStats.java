@@ -0,0 +1,40 @@
+package org.solterra.townyCatalog.model;
+
+/**
+ * Aggregates over a set of plot prices
+ */
+public class PriceStats {
+    public static final PriceStats EMPTY = new PriceStats(0, 0.0, 0.0, 0.0);
+
+    private final int count;
+    private final double minPrice;
+    private final double maxPrice;
+    private final double sum;
+
+    public PriceStats(int count, double minPrice, double maxPrice, double sum) {
+        this.count = count;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.sum = sum;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getAveragePrice() {
+        return count > 0 ? sum / count : 0.0;
+    }
+}
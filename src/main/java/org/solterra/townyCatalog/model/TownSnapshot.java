@@ -0,0 +1,67 @@
+package org.solterra.townyCatalog.model;
+
+import com.palmergames.bukkit.towny.object.Town;
+
+import java.util.List;
+
+/**
+ * Immutable copy of the town data needed to build the town selection away from the main thread
+ * The Town reference is carried through untouched and only read again on the main thread
+ */
+public class TownSnapshot {
+    private final Town town;
+    private final String name;
+    private final boolean open;
+    private final boolean isPublic;
+    private final List<PlotSnapshot> plots;
+    private final PriceStats stats;
+    private final long version;
+
+    public TownSnapshot(Town town, String name, boolean open, boolean isPublic, List<PlotSnapshot> plots,
+                        PriceStats stats, long version) {
+        this.town = town;
+        this.name = name;
+        this.open = open;
+        this.isPublic = isPublic;
+        this.plots = List.copyOf(plots);
+        this.stats = stats;
+        this.version = version;
+    }
+
+    public Town getTown() {
+        return town;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    /**
+     * @return The town's plots for sale in ascending price order, empty if only aggregates were captured
+     */
+    public List<PlotSnapshot> getPlots() {
+        return plots;
+    }
+
+    /**
+     * @return Price aggregates of the plots matching the filters the snapshot was captured with
+     */
+    public PriceStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return The index version of the town's plots for sale at capture time
+     */
+    public long getVersion() {
+        return version;
+    }
+}
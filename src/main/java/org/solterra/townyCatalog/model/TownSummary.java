@@ -0,0 +1,61 @@
+package org.solterra.townyCatalog.model;
+
+import com.palmergames.bukkit.towny.object.Town;
+
+/**
+ * Data holder for a single row of the town selection GUI
+ */
+public class TownSummary {
+    private final Town town;
+    private final String name;
+    private final int plotCount;
+    private final double minPrice;
+    private final double maxPrice;
+    private final long version;
+    private final boolean viewerSpecific;
+
+    public TownSummary(Town town, String name, int plotCount, double minPrice, double maxPrice, long version,
+                       boolean viewerSpecific) {
+        this.town = town;
+        this.name = name;
+        this.plotCount = plotCount;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.version = version;
+        this.viewerSpecific = viewerSpecific;
+    }
+
+    public Town getTown() {
+        return town;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPlotCount() {
+        return plotCount;
+    }
+
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * @return The index version of the town's plots for sale this summary was computed from
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true if the summary depends on the viewer's balance and must not be shared
+     */
+    public boolean isViewerSpecific() {
+        return viewerSpecific;
+    }
+}
@@ -0,0 +1,162 @@
+package org.solterra.townyCatalog.profile;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Local cache of resolved head textures, persisted to a file so skins survive restarts
+ * Lookups never block: callers get cached textures immediately or a future that completes once resolved
+ * The file is written on shutdown and, through {@link #saveIfChanged}, periodically while new skins come in
+ */
+public class HeadProfileCache {
+
+    private static final long REFRESH_AFTER = TimeUnit.DAYS.toMillis(1);
+    private static final long RETRY_AFTER = TimeUnit.MINUTES.toMillis(10);
+
+    private final ProfileResolver resolver;
+    private final File file;
+    private final Logger logger;
+    private final Map<UUID, HeadTextures> textures = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<HeadTextures>> inFlight = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> failedAt = new ConcurrentHashMap<>();
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    public HeadProfileCache(ProfileResolver resolver, File file, Logger logger) {
+        this.resolver = resolver;
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Gets cached textures, starting a background refresh if they are old
+     *
+     * @param uuid The player's UUID
+     * @param name The player's last known name
+     * @return The cached textures, or null if none are cached yet
+     */
+    public HeadTextures getCached(UUID uuid, String name) {
+        HeadTextures cached = textures.get(uuid);
+        if (cached != null && System.currentTimeMillis() - cached.getResolvedAt() > REFRESH_AFTER) {
+            request(uuid, name);
+        }
+        return cached;
+    }
+
+    /**
+     * Resolves textures for a player, sharing a single lookup between concurrent callers
+     *
+     * @param uuid The player's UUID
+     * @param name The player's last known name
+     * @return Future completing with the textures, or with null if they could not be resolved
+     */
+    public CompletableFuture<HeadTextures> request(UUID uuid, String name) {
+        Long failed = failedAt.get(uuid);
+        if (failed != null && System.currentTimeMillis() - failed < RETRY_AFTER) {
+            return CompletableFuture.completedFuture(textures.get(uuid));
+        }
+
+        CompletableFuture<HeadTextures> future = new CompletableFuture<>();
+        CompletableFuture<HeadTextures> existing = inFlight.putIfAbsent(uuid, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        // Resolvers may complete synchronously, so the future is registered before resolving
+        CompletableFuture<HeadTextures> lookup;
+        try {
+            lookup = resolver.resolve(uuid, name);
+        } catch (RuntimeException e) {
+            // Handled like a failed lookup, so the entry is released and later requests aren't stuck on it
+            lookup = CompletableFuture.failedFuture(e);
+        }
+
+        lookup.whenComplete((resolved, error) -> {
+            if (error != null || resolved == null) {
+                failedAt.put(uuid, System.currentTimeMillis());
+            } else {
+                failedAt.remove(uuid);
+                textures.put(uuid, resolved);
+                changed.set(true);
+            }
+
+            inFlight.remove(uuid, future);
+            future.complete(textures.get(uuid));
+        });
+        return future;
+    }
+
+    /**
+     * Loads previously resolved textures from disk
+     */
+    public void load() {
+        if (!file.exists()) {
+            return;
+        }
+
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        for (String key : yaml.getKeys(false)) {
+            ConfigurationSection section = yaml.getConfigurationSection(key);
+            if (section == null) {
+                continue;
+            }
+
+            try {
+                UUID uuid = UUID.fromString(key);
+                textures.put(uuid, new HeadTextures(uuid, section.getString("name"), section.getString("value"),
+                        section.getString("signature"), section.getLong("resolved-at")));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Skipping invalid head cache entry: " + key);
+            }
+        }
+    }
+
+    /**
+     * Writes resolved textures to disk if any were resolved since the last save
+     */
+    public void saveIfChanged() {
+        if (changed.get()) {
+            save();
+        }
+    }
+
+    /**
+     * Writes resolved textures to disk
+     */
+    public synchronized void save() {
+        // Cleared first, so textures resolved while writing are picked up by the next save
+        changed.set(false);
+        YamlConfiguration yaml = new YamlConfiguration();
+        for (HeadTextures entry : textures.values()) {
+            ConfigurationSection section = yaml.createSection(entry.getUuid().toString());
+            section.set("name", entry.getName());
+            section.set("value", entry.getValue());
+            section.set("signature", entry.getSignature());
+            section.set("resolved-at", entry.getResolvedAt());
+        }
+
+        try {
+            yaml.save(file);
+        } catch (IOException e) {
+            changed.set(true);
+            logger.log(Level.WARNING, "Failed to save head cache", e);
+        }
+    }
+
+    /**
+     * @return Number of cached textures
+     */
+    public int size() {
+        return textures.size();
+    }
+}
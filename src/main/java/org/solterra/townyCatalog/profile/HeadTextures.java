@@ -0,0 +1,51 @@
+package org.solterra.townyCatalog.profile;
+
+import java.util.UUID;
+
+/**
+ * Resolved skin textures for a player head
+ */
+public class HeadTextures {
+    private final UUID uuid;
+    private final String name;
+    private final String value;
+    private final String signature;
+    private final long resolvedAt;
+
+    public HeadTextures(UUID uuid, String name, String value, String signature, long resolvedAt) {
+        this.uuid = uuid;
+        this.name = name;
+        this.value = value;
+        this.signature = signature;
+        this.resolvedAt = resolvedAt;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The base64 encoded textures property value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return The textures property signature, or null if unsigned
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * @return When the textures were resolved, in epoch milliseconds
+     */
+    public long getResolvedAt() {
+        return resolvedAt;
+    }
+}
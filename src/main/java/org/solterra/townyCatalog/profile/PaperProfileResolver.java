@@ -0,0 +1,52 @@
+package org.solterra.townyCatalog.profile;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.solterra.townyCatalog.util.CatalogScheduler;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resolves head textures through Paper's profile API on the async scheduler
+ */
+public class PaperProfileResolver implements ProfileResolver {
+
+    private final Plugin plugin;
+
+    public PaperProfileResolver(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public CompletableFuture<HeadTextures> resolve(UUID uuid, String name) {
+        CompletableFuture<HeadTextures> future = new CompletableFuture<>();
+
+        CatalogScheduler.runAsync(plugin, () -> {
+            try {
+                // complete() may hit the session service, which is why this never runs on the main thread
+                PlayerProfile profile = Bukkit.createProfile(uuid, name);
+                if (!profile.complete(true)) {
+                    future.complete(null);
+                    return;
+                }
+
+                HeadTextures textures = null;
+                for (ProfileProperty property : profile.getProperties()) {
+                    if (property.getName().equals("textures")) {
+                        textures = new HeadTextures(uuid, profile.getName(), property.getValue(),
+                                property.getSignature(), System.currentTimeMillis());
+                        break;
+                    }
+                }
+                future.complete(textures);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+}
@@ -0,0 +1,20 @@
+package org.solterra.townyCatalog.profile;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resolves the skin textures of a player, for example from the Mojang session service
+ * Implementations must not block the calling thread
+ */
+public interface ProfileResolver {
+
+    /**
+     * Resolves a player's head textures
+     *
+     * @param uuid The player's UUID
+     * @param name The player's last known name, may be null
+     * @return Future completing with the textures, or with null if the player has none
+     */
+    CompletableFuture<HeadTextures> resolve(UUID uuid, String name);
+}
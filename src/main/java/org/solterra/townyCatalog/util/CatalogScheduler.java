@@ -0,0 +1,133 @@
+package org.solterra.townyCatalog.util;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules work on the thread that owns what it touches, so the plugin runs on both Paper and Folia
+ * On Paper the global region, every region and every entity are all ticked by the main thread
+ * On Folia the global region thread owns Towny and plugin-wide state, and each player and chunk is owned by its region
+ */
+public class CatalogScheduler {
+
+    /**
+     * Runs a task on the global region on the next tick
+     *
+     * @param plugin The owning plugin
+     * @param task   The task to run
+     */
+    public static void runGlobal(Plugin plugin, Runnable task) {
+        Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+    }
+
+    /**
+     * Runs a task on the global region, straight away if the current thread already is the global region
+     *
+     * @param plugin The owning plugin
+     * @param task   The task to run
+     */
+    public static void onGlobal(Plugin plugin, Runnable task) {
+        if (Bukkit.isGlobalTickThread()) {
+            task.run();
+        } else {
+            runGlobal(plugin, task);
+        }
+    }
+
+    /**
+     * Runs a task on the global region every interval, starting one interval from now
+     *
+     * @param plugin        The owning plugin
+     * @param task          The task to run
+     * @param intervalTicks Ticks between runs
+     * @return The scheduled task, for cancelling
+     */
+    public static ScheduledTask runGlobalTimer(Plugin plugin, Runnable task, long intervalTicks) {
+        return Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, scheduled -> task.run(), intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Runs a task on the thread owning an entity on the next tick
+     * Nothing runs if the entity is removed first, such as a player logging out
+     *
+     * @param plugin The owning plugin
+     * @param entity The entity the task works on
+     * @param task   The task to run
+     */
+    public static void runForEntity(Plugin plugin, Entity entity, Runnable task) {
+        entity.getScheduler().run(plugin, scheduled -> task.run(), null);
+    }
+
+    /**
+     * Runs a task on the thread owning an entity, straight away if the current thread already owns it
+     *
+     * @param plugin The owning plugin
+     * @param entity The entity the task works on
+     * @param task   The task to run
+     */
+    public static void onEntity(Plugin plugin, Entity entity, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(entity)) {
+            task.run();
+        } else {
+            runForEntity(plugin, entity, task);
+        }
+    }
+
+    /**
+     * Runs a task where a command sender can be messaged: on its own thread for players and other entities,
+     * and on the global region for the console
+     *
+     * @param plugin The owning plugin
+     * @param sender The command sender
+     * @param task   The task to run
+     */
+    public static void runForSender(Plugin plugin, CommandSender sender, Runnable task) {
+        if (sender instanceof Entity entity) {
+            runForEntity(plugin, entity, task);
+        } else {
+            runGlobal(plugin, task);
+        }
+    }
+
+    /**
+     * Runs a task on the thread owning a chunk's region on the next tick
+     *
+     * @param plugin The owning plugin
+     * @param world  The chunk's world
+     * @param chunkX Chunk X
+     * @param chunkZ Chunk Z
+     * @param task   The task to run
+     */
+    public static void runAtChunk(Plugin plugin, World world, int chunkX, int chunkZ, Runnable task) {
+        Bukkit.getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+    }
+
+    /**
+     * Runs a task off every tick thread
+     *
+     * @param plugin The owning plugin
+     * @param task   The task to run
+     */
+    public static void runAsync(Plugin plugin, Runnable task) {
+        Bukkit.getAsyncScheduler().runNow(plugin, scheduled -> task.run());
+    }
+
+    /**
+     * Runs a task off every tick thread every interval, starting one interval from now
+     *
+     * @param plugin          The owning plugin
+     * @param task            The task to run
+     * @param intervalMinutes Minutes between runs
+     * @return The scheduled task, for cancelling
+     */
+    public static ScheduledTask runAsyncTimer(Plugin plugin, Runnable task, long intervalMinutes) {
+        return Bukkit.getAsyncScheduler().runAtFixedRate(plugin, scheduled -> task.run(), intervalMinutes, intervalMinutes,
+                TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,59 @@
+package org.solterra.townyCatalog.util;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+/**
+ * Immutable snapshot of the configuration, read once per load so hot paths read fields instead of YAML paths
+ * Every load gets a new version, so anything derived from the settings can tell when it is out of date
+ *
+ * @param version             Increases with every load
+ * @param showCustomPlotNames true if plot names set through /plot set name are shown
+ * @param requireTownOpen     true if only plots from open towns are shown
+ * @param requireTownPublic   true if only plots from public towns are shown
+ * @param requireAffordable   true if only plots the viewer can afford are shown
+ * @param residentialOnly     true if only residential plots are shown
+ * @param metricsDumpMinutes  Minutes between metrics dumps to disk, 0 if disabled
+ * @param snapshotEnabled     true if the plot index is saved to disk and restored from it on startup
+ * @param snapshotSaveMinutes Minutes between periodic index snapshots, 0 to only save on shutdown
+ * @param headSaveMinutes     Minutes between saves of newly resolved head skins, 0 to only save on shutdown
+ * @param exportFormat        Format of full catalog exports, json or csv
+ * @param exportMinutes       Minutes between scheduled full exports, 0 if disabled
+ * @param exportJournal       true if listing changes are appended to the export journal
+ * @param httpEnabled         true if the read-only HTTP endpoint is served
+ * @param httpBindAddress     Address the HTTP endpoint listens on
+ * @param httpPort            Port the HTTP endpoint listens on
+ */
+public record CatalogSettings(long version, boolean showCustomPlotNames, boolean requireTownOpen,
+                              boolean requireTownPublic, boolean requireAffordable, boolean residentialOnly,
+                              int metricsDumpMinutes, boolean snapshotEnabled, int snapshotSaveMinutes, int headSaveMinutes,
+                              String exportFormat, int exportMinutes, boolean exportJournal,
+                              boolean httpEnabled, String httpBindAddress, int httpPort) {
+
+    /**
+     * Reads the settings from a loaded configuration
+     *
+     * @param config  The loaded configuration
+     * @param version The version to give the snapshot
+     * @return CatalogSettings snapshot
+     */
+    static CatalogSettings read(FileConfiguration config, long version) {
+        return new CatalogSettings(
+                version,
+                config.getBoolean("plots.show-custom-plot-name", true),
+                config.getBoolean("filters.require-town-open", true),
+                config.getBoolean("filters.require-town-public", true),
+                config.getBoolean("filters.require-affordable", true),
+                config.getBoolean("filters.residential-only", false),
+                config.getInt("metrics.dump-interval-minutes", 0),
+                config.getBoolean("snapshot.enabled", true),
+                config.getInt("snapshot.save-interval-minutes", 10),
+                config.getInt("heads.save-interval-minutes", 10),
+                config.getString("export.format", "json"),
+                config.getInt("export.interval-minutes", 0),
+                config.getBoolean("export.journal", false),
+                config.getBoolean("http.enabled", false),
+                config.getString("http.bind-address", "127.0.0.1"),
+                config.getInt("http.port", 8765)
+        );
+    }
+}
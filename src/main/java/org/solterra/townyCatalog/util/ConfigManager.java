@@ -3,13 +3,18 @@ package org.solterra.townyCatalog.util;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Manages configuration settings for TownyCatalog
+ * Settings are read into an immutable {@link CatalogSettings} snapshot on every load, which is swapped in atomically
  */
 public class ConfigManager {
 
     private final JavaPlugin plugin;
+    private final AtomicLong versionCounter = new AtomicLong();
     private FileConfiguration config;
+    private volatile CatalogSettings settings;
 
     public ConfigManager(JavaPlugin plugin) {
         this.plugin = plugin;
@@ -22,10 +27,21 @@ public class ConfigManager {
         config.addDefault("filters.require-town-public", true);
         config.addDefault("filters.require-affordable", false);
         config.addDefault("filters.residential-only", false);
+        config.addDefault("metrics.dump-interval-minutes", 0);
+        config.addDefault("snapshot.enabled", true);
+        config.addDefault("snapshot.save-interval-minutes", 10);
+        config.addDefault("heads.save-interval-minutes", 10);
+        config.addDefault("export.format", "json");
+        config.addDefault("export.interval-minutes", 0);
+        config.addDefault("export.journal", false);
+        config.addDefault("http.enabled", false);
+        config.addDefault("http.bind-address", "127.0.0.1");
+        config.addDefault("http.port", 8765);
 
         // Merge defaults into existing config without overwriting user values
         config.options().copyDefaults(true);
         plugin.saveConfig();
+        this.settings = CatalogSettings.read(config, versionCounter.incrementAndGet());
     }
 
     /**
@@ -34,39 +50,45 @@ public class ConfigManager {
     public void reload() {
         plugin.reloadConfig();
         this.config = plugin.getConfig();
+        this.settings = CatalogSettings.read(config, versionCounter.incrementAndGet());
     }
 
-
+    /**
+     * @return The current settings snapshot, which stays consistent even if the configuration is reloaded meanwhile
+     */
+    public CatalogSettings getSettings() {
+        return settings;
+    }
 
     /**
      * @return true if only plots from open towns should be shown
      */
     public boolean requireTownOpen() {
-        return config.getBoolean("filters.require-town-open", true);
+        return settings.requireTownOpen();
     }
 
     /**
      * @return true if only plots from public towns should be shown
      */
     public boolean requireTownPublic() {
-        return config.getBoolean("filters.require-town-public", true);
+        return settings.requireTownPublic();
     }
 
     /**
      * @return true if only affordable plots should be shown
      */
     public boolean requireAffordable() {
-        return config.getBoolean("filters.require-affordable", true);
+        return settings.requireAffordable();
     }
 
     /**
      * @return true if only residential plots should be shown
      */
     public boolean residentialOnly() {
-        return config.getBoolean("filters.residential-only", false);
+        return settings.residentialOnly();
     }
 
     public boolean showCustomPlotNames() {
-        return config.getBoolean("plots.show-custom-plot-name", true);
+        return settings.showCustomPlotNames();
     }
 }
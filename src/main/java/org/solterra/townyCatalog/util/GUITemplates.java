@@ -0,0 +1,193 @@
+package org.solterra.townyCatalog.util;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.solterra.townyCatalog.TownyCatalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prebuilt control items for the GUIs, rebuilt whenever the configuration is loaded
+ * Shared instances are returned for items without variable parts and must not be modified;
+ * inventories copy items on insertion, so they are safe to pass straight to setItem
+ */
+public class GUITemplates {
+
+    private static volatile Templates templates;
+
+    /**
+     * Rebuilds every template, called on startup and whenever the configuration is reloaded
+     */
+    public static void rebuild() {
+        templates = new Templates(TownyCatalog.getInstance().getConfigManager().getSettings());
+    }
+
+    /**
+     * @return Shared back button item
+     */
+    public static ItemStack backButton() {
+        return templates.backButton;
+    }
+
+    /**
+     * @param targetPage The page the button leads to (1-indexed for display)
+     * @return Shared previous page button for that page
+     */
+    public static ItemStack previousPage(int targetPage) {
+        return templates.previousPages.computeIfAbsent(targetPage, page ->
+                GUIUtils.createNavigationItem(Material.ARROW, "Previous Page", "Click to go to page " + page));
+    }
+
+    /**
+     * @param targetPage The page the button leads to (1-indexed for display)
+     * @return Shared next page button for that page
+     */
+    public static ItemStack nextPage(int targetPage) {
+        return templates.nextPages.computeIfAbsent(targetPage, page ->
+                GUIUtils.createNavigationItem(Material.ARROW, "Next Page", "Click to go to page " + page));
+    }
+
+    /**
+     * Gets the town selection search button, showing the current search if there is one
+     *
+     * @param search The current search text, or null if the towns are not filtered
+     * @return Search button item
+     */
+    public static ItemStack searchButton(String search) {
+        Templates current = templates;
+        if (search == null) {
+            return current.searchButton;
+        }
+
+        ItemStack item = current.searchButton.clone();
+        ItemMeta meta = item.getItemMeta();
+        meta.lore(List.of(
+                Component.text("Searching: ", NamedTextColor.GRAY)
+                        .append(Component.text(search, NamedTextColor.WHITE))
+                        .decoration(TextDecoration.ITALIC, false),
+                Component.text("Click to search again", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false)));
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    /**
+     * @param label Name of the current sort order
+     * @return Shared sort button showing that order
+     */
+    public static ItemStack sortButton(String label) {
+        return templates.sortButtons.computeIfAbsent(label, current -> {
+            ItemStack item = new ItemStack(Material.HOPPER);
+            ItemMeta meta = item.getItemMeta();
+            meta.displayName(Component.text("Sort: ", NamedTextColor.YELLOW)
+                    .append(Component.text(current, NamedTextColor.WHITE))
+                    .decoration(TextDecoration.ITALIC, false));
+            meta.lore(List.of(Component.text("Click to change the order", NamedTextColor.GRAY)
+                    .decoration(TextDecoration.ITALIC, false)));
+            item.setItemMeta(meta);
+            return item;
+        });
+    }
+
+    /**
+     * Creates the catalog info item from its template, only rebuilding the page and count lines
+     *
+     * @param currentPage Current page number (1-indexed for display)
+     * @param totalPages  Total number of pages
+     * @param totalPlots  Total number of plots
+     * @return ItemStack info item
+     */
+    public static ItemStack catalogInfo(int currentPage, int totalPages, int totalPlots) {
+        Templates current = templates;
+        return withCounts(current.catalogInfo, current.catalogInfoFooter, currentPage, totalPages,
+                "Total Plots: ", totalPlots);
+    }
+
+    /**
+     * Creates the town selection info item from its template, only rebuilding the page and count lines
+     *
+     * @param currentPage Current page number (1-indexed for display)
+     * @param totalPages  Total number of pages
+     * @param totalTowns  Total number of towns
+     * @return ItemStack info item
+     */
+    public static ItemStack townSelectionInfo(int currentPage, int totalPages, int totalTowns) {
+        Templates current = templates;
+        return withCounts(current.townSelectionInfo, current.townSelectionInfoFooter, currentPage, totalPages,
+                "Total Towns: ", totalTowns);
+    }
+
+    private static ItemStack withCounts(ItemStack template, Component footer, int currentPage, int totalPages,
+                                       String countLabel, int count) {
+        ItemStack item = template.clone();
+        ItemMeta meta = item.getItemMeta();
+
+        List<Component> lore = new ArrayList<>(5);
+        lore.add(Component.empty());
+        lore.add(Component.text("Page: ", NamedTextColor.GRAY)
+                .append(Component.text(currentPage + "/" + totalPages, NamedTextColor.WHITE))
+                .decoration(TextDecoration.ITALIC, false));
+        lore.add(Component.text(countLabel, NamedTextColor.GRAY)
+                .append(Component.text(String.valueOf(count), NamedTextColor.WHITE))
+                .decoration(TextDecoration.ITALIC, false));
+        lore.add(Component.empty());
+        lore.add(footer);
+
+        meta.lore(lore);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    /**
+     * One generation of templates, swapped as a whole on rebuild
+     */
+    private static class Templates {
+        private final ItemStack backButton;
+        private final ItemStack catalogInfo;
+        private final Component catalogInfoFooter;
+        private final ItemStack townSelectionInfo;
+        private final Component townSelectionInfoFooter;
+        private final ItemStack searchButton;
+        private final Map<Integer, ItemStack> previousPages = new ConcurrentHashMap<>();
+        private final Map<Integer, ItemStack> nextPages = new ConcurrentHashMap<>();
+        private final Map<String, ItemStack> sortButtons = new ConcurrentHashMap<>();
+
+        private Templates(CatalogSettings settings) {
+            backButton = createItem(Material.BARRIER,
+                    Component.text("Back to Town Selection", NamedTextColor.RED),
+                    Component.text("Click to return", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false));
+
+            catalogInfo = createItem(Material.BOOK, Component.text("Catalog Info", NamedTextColor.AQUA), null);
+            catalogInfoFooter = Component.text(settings.requireAffordable()
+                    ? "Showing affordable plots only"
+                    : "Showing all plots for sale", NamedTextColor.DARK_GRAY, TextDecoration.ITALIC);
+
+            townSelectionInfo = createItem(Material.BOOK, Component.text("Town Selection", NamedTextColor.AQUA), null);
+            townSelectionInfoFooter = Component.text("Select a town to browse plots", NamedTextColor.DARK_GRAY,
+                    TextDecoration.ITALIC);
+
+            searchButton = createItem(Material.OAK_SIGN,
+                    Component.text("Search", NamedTextColor.YELLOW),
+                    Component.text("Click to search towns by name", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false));
+        }
+
+        private static ItemStack createItem(Material material, Component displayName, Component loreLine) {
+            ItemStack item = new ItemStack(material);
+            ItemMeta meta = item.getItemMeta();
+
+            meta.displayName(displayName.decoration(TextDecoration.ITALIC, false));
+            if (loreLine != null) {
+                meta.lore(List.of(loreLine));
+            }
+
+            item.setItemMeta(meta);
+            return item;
+        }
+    }
+}
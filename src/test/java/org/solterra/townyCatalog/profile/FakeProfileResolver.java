@@ -0,0 +1,65 @@
+package org.solterra.townyCatalog.profile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Profile resolver for tests, whose lookups stay pending until the test completes them
+ */
+class FakeProfileResolver implements ProfileResolver {
+
+    private final List<CompletableFuture<HeadTextures>> lookups = new ArrayList<>();
+    private RuntimeException thrown;
+
+    @Override
+    public synchronized CompletableFuture<HeadTextures> resolve(UUID uuid, String name) {
+        if (thrown != null) {
+            throw thrown;
+        }
+
+        CompletableFuture<HeadTextures> lookup = new CompletableFuture<>();
+        lookups.add(lookup);
+        return lookup;
+    }
+
+    /**
+     * Makes every following lookup throw instead of returning a future
+     *
+     * @param thrown The exception to throw
+     */
+    synchronized void throwOnResolve(RuntimeException thrown) {
+        this.thrown = thrown;
+    }
+
+    /**
+     * @return Number of lookups started so far
+     */
+    synchronized int lookups() {
+        return lookups.size();
+    }
+
+    /**
+     * Completes a pending lookup from another thread, as a real resolver would
+     *
+     * @param index    The lookup to complete, in the order they were started
+     * @param textures The resolved textures, or null if the player has none
+     */
+    void complete(int index, HeadTextures textures) {
+        CompletableFuture<HeadTextures> lookup;
+        synchronized (this) {
+            lookup = lookups.get(index);
+        }
+        CompletableFuture.runAsync(() -> lookup.complete(textures)).join();
+    }
+
+    /**
+     * Fails a pending lookup
+     *
+     * @param index The lookup to fail, in the order they were started
+     */
+    synchronized void fail(int index) {
+        lookups.get(index).completeExceptionally(new IllegalStateException("Lookup failed"));
+    }
+}
@@ -0,0 +1,123 @@
+package org.solterra.townyCatalog.profile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadProfileCacheTest {
+
+    private static final Logger LOGGER = Logger.getLogger(HeadProfileCacheTest.class.getName());
+
+    @TempDir
+    File folder;
+
+    private FakeProfileResolver resolver;
+    private File file;
+    private HeadProfileCache cache;
+    private UUID mayor;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new FakeProfileResolver();
+        file = new File(folder, "heads.yml");
+        cache = new HeadProfileCache(resolver, file, LOGGER);
+        mayor = UUID.randomUUID();
+    }
+
+    @Test
+    void concurrentRequestsShareOneLookup() {
+        CompletableFuture<HeadTextures> first = cache.request(mayor, "Mayor");
+        CompletableFuture<HeadTextures> second = cache.request(mayor, "Mayor");
+
+        assertSame(first, second);
+        assertEquals(1, resolver.lookups());
+        assertFalse(first.isDone());
+        assertNull(cache.getCached(mayor, "Mayor"));
+    }
+
+    @Test
+    void resolvedTexturesAreServedFromTheCache() throws Exception {
+        CompletableFuture<HeadTextures> request = cache.request(mayor, "Mayor");
+        HeadTextures textures = textures(mayor);
+        resolver.complete(0, textures);
+
+        assertSame(textures, request.get(1, TimeUnit.SECONDS));
+        assertSame(textures, cache.getCached(mayor, "Mayor"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void failedLookupCompletesWithNullAndIsNotRetriedStraightAway() throws Exception {
+        CompletableFuture<HeadTextures> request = cache.request(mayor, "Mayor");
+        resolver.fail(0);
+
+        assertNull(request.get(1, TimeUnit.SECONDS));
+        assertNull(cache.request(mayor, "Mayor").get(1, TimeUnit.SECONDS));
+        assertEquals(1, resolver.lookups());
+    }
+
+    @Test
+    void resolverThrowingReleasesTheLookup() throws Exception {
+        resolver.throwOnResolve(new IllegalStateException("Resolver broke"));
+
+        CompletableFuture<HeadTextures> first = cache.request(mayor, "Mayor");
+        assertTrue(first.isDone());
+        assertNull(first.get());
+
+        // A stuck in-flight entry would hand back the same future forever
+        CompletableFuture<HeadTextures> second = cache.request(mayor, "Mayor");
+        assertNotSame(first, second);
+        assertTrue(second.isDone());
+    }
+
+    @Test
+    void savedTexturesAreLoadedBack() throws Exception {
+        cache.request(mayor, "Mayor");
+        HeadTextures textures = textures(mayor);
+        resolver.complete(0, textures);
+        cache.save();
+
+        HeadProfileCache loaded = new HeadProfileCache(new FakeProfileResolver(), file, LOGGER);
+        loaded.load();
+        HeadTextures restored = loaded.getCached(mayor, "Mayor");
+
+        assertNotNull(restored);
+        assertEquals(textures.getName(), restored.getName());
+        assertEquals(textures.getValue(), restored.getValue());
+        assertEquals(textures.getSignature(), restored.getSignature());
+        assertEquals(textures.getResolvedAt(), restored.getResolvedAt());
+    }
+
+    @Test
+    void saveIfChangedOnlyWritesNewTextures() {
+        cache.saveIfChanged();
+        assertFalse(file.exists());
+
+        cache.request(mayor, "Mayor");
+        resolver.complete(0, textures(mayor));
+        cache.saveIfChanged();
+        assertTrue(file.exists());
+
+        assertTrue(file.delete());
+        cache.saveIfChanged();
+        assertFalse(file.exists());
+    }
+
+    private static HeadTextures textures(UUID uuid) {
+        return new HeadTextures(uuid, "Mayor", "dGV4dHVyZXM=", "c2lnbmF0dXJl", System.currentTimeMillis());
+    }
+}